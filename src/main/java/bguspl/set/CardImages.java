@@ -0,0 +1,193 @@
+package bguspl.set;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static bguspl.set.UserInterfaceSwing.intInBaseToPaddedString;
+
+/**
+ * The card images, decoded in the background by a pool of loader threads and kept in a bounded LRU cache. The first
+ * cards of the deck are prefetched in parallel when the images are created, and any other card is loaded when it is
+ * first asked for, so the window does not wait for the images and the memory they take is bounded for large decks.
+ * The images are scaled to the size of the table cells and converted to the display's pixel format once, when they
+ * are loaded, so painting a card is a plain blit. The cards of the decks other than the classic one (4 features with
+ * 3 values), which have no images, are drawn from their features by a CardRenderer instead.
+ */
+class CardImages {
+
+    private final Config config;
+    private final Logger logger;
+    private final Util util;
+    private final CardRenderer renderer;
+
+    /**
+     * Called with an image and its card after the image is loaded (on a loader thread).
+     */
+    private final ObjIntConsumer<Image> onLoaded;
+
+    /**
+     * The loaded images by card, least recently used first, and the cards being loaded (all guarded by cache).
+     */
+    private final Map<Integer, Image> cache;
+    private final BitSet loading = new BitSet();
+
+    private final ExecutorService loaders;
+
+    /**
+     * The display's configuration, to create images in its pixel format (null if there is no display).
+     */
+    private final GraphicsConfiguration display;
+
+    /**
+     * The image of an empty slot, ready to paint.
+     */
+    final Image emptyCard;
+
+    /**
+     * @param config   - the game configuration.
+     * @param logger   - the logger to report failed loads to.
+     * @param util     - the utilities, to draw the cards that have no image from their features.
+     * @param onLoaded - called with an image and its card after the image is loaded (on a loader thread).
+     */
+    CardImages(Config config, Logger logger, Util util, ObjIntConsumer<Image> onLoaded) {
+        this.config = config;
+        this.logger = logger;
+        this.util = util;
+        this.renderer = new CardRenderer(config);
+        this.onLoaded = onLoaded;
+        this.display = GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        this.emptyCard = toCell(loadImageResource("cards/empty_card.png"));
+        this.cache = new LinkedHashMap<Integer, Image>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Image> eldest) {
+                return size() > config.cardImageCacheSize;
+            }
+        };
+        AtomicInteger threads = new AtomicInteger();
+        loaders = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "card-loader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int card = 0; card < Math.min(config.deckSize, config.cardImageCacheSize); card++)
+            get(card); // prefetch
+    }
+
+    /**
+     * @param filename - the name of an image resource.
+     * @return - the decoded image.
+     */
+    static BufferedImage loadImageResource(String filename) {
+        URL imageResource = CardImages.class.getClassLoader().getResource(filename);
+        if (imageResource == null)
+            throw new RuntimeException(new FileNotFoundException(filename));
+        try {
+            return ImageIO.read(imageResource);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param image - a decoded image.
+     * @return - the image scaled to the size of the table cells, in the display's pixel format.
+     */
+    private Image toCell(BufferedImage image) {
+        BufferedImage cell = newCell();
+        Graphics2D g = cell.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, config.cellWidth, config.cellHeight, null);
+        g.dispose();
+        return cell;
+    }
+
+    /**
+     * @param card - a card.
+     * @return - the card drawn from its features, in the size of the table cells and the display's pixel format.
+     */
+    private Image render(int card) {
+        BufferedImage cell = newCell();
+        Graphics2D g = cell.createGraphics();
+        renderer.draw(g, util.cardToFeatures(card), config.cellWidth, config.cellHeight);
+        g.dispose();
+        return cell;
+    }
+
+    /**
+     * @return - a transparent image in the size of the table cells and the display's pixel format.
+     */
+    private BufferedImage newCell() {
+        return display != null ? display.createCompatibleImage(config.cellWidth, config.cellHeight, Transparency.TRANSLUCENT)
+                : new BufferedImage(config.cellWidth, config.cellHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    /**
+     * @param card - a card.
+     * @return - the image of the card, or null if it is not loaded yet (then it is loaded in the background, and
+     *           onLoaded is called with the image when it is, even if the cache evicts it at once).
+     */
+    Image get(int card) {
+        synchronized (cache) {
+            Image image = cache.get(card);
+            if (image != null || loading.get(card)) return image;
+            loading.set(card);
+        }
+        try {
+            loaders.execute(() -> load(card));
+        } catch (RejectedExecutionException ignored) {} // shut down
+        return null;
+    }
+
+    private void load(int card) {
+        Image image = null;
+        try {
+            image = classicDeck() ? toCell(loadImageResource("cards/"
+                    + intInBaseToPaddedString(card, config.featureCount, config.featureSize) + ".png")) : render(card);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "cannot load the image of card " + card, e);
+        }
+        synchronized (cache) {
+            if (image == null) return; // still marked as loading, so it is not tried again
+            loading.clear(card);
+            cache.put(card, image);
+        }
+        onLoaded.accept(image, card);
+    }
+
+    /**
+     * @return - true if the deck is the classic one the card images are of (the names of other decks' cards may
+     *           collide with theirs, e.g. card 2 of 4 features with 2 values is "0010" too).
+     */
+    private boolean classicDeck() {
+        return config.featureCount == 4 && config.featureSize == 3;
+    }
+
+    /**
+     * Stops loading images.
+     */
+    void shutdown() {
+        loaders.shutdownNow();
+    }
+}
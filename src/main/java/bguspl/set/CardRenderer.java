@@ -0,0 +1,158 @@
+package bguspl.set;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+
+/**
+ * Draws a card from its features, for the decks that have no card images (all but the classic one, with any
+ * FeatureCount and FeatureSize).
+ * The features are drawn like on the classic cards, each with as many values as needed:
+ * feature 0 - the number of shapes (1 to FeatureSize).
+ * feature 1 - the color (a fixed palette, then hues spread around the color wheel).
+ * feature 2 - the shape (oval, diamond, wave, then polygons with more and more sides).
+ * feature 3 - the shading (solid, striped, empty, then fills that fade out).
+ * features 4 and on - their values (1 to FeatureSize), written in the corner of the card.
+ */
+class CardRenderer {
+
+    private static final Color[] PALETTE = {
+            new Color(0xD0, 0x20, 0x30), new Color(0x10, 0x90, 0x40), new Color(0x60, 0x20, 0x90),
+            new Color(0x10, 0x50, 0xC0), new Color(0xE0, 0x80, 0x10), new Color(0x10, 0x90, 0x90)};
+
+    private final Config config;
+
+    CardRenderer(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Draws a card.
+     *
+     * @param g        - the graphics to draw on, with the card's top left corner at (0, 0).
+     * @param features - the card's features.
+     * @param width    - the width of the card.
+     * @param height   - the height of the card.
+     */
+    void draw(Graphics2D g, int[] features, int width, int height) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        float margin = Math.min(width, height) / 20f;
+        Shape card = new RoundRectangle2D.Float(margin, margin, width - 2 * margin, height - 2 * margin, 4 * margin, 4 * margin);
+        g.setColor(Color.WHITE);
+        g.fill(card);
+        g.setColor(Color.GRAY);
+        g.setStroke(new BasicStroke(Math.max(1, margin / 4)));
+        g.draw(card);
+
+        int count = feature(features, 0) + 1;
+        Color color = color(feature(features, 1));
+        int shading = feature(features, 3);
+
+        // lay the shapes out in a row, as large as the card lets them be
+        float slotWidth = (width - 4 * margin) / Math.max(3, config.featureSize);
+        float shapeWidth = slotWidth * 0.8f;
+        float shapeHeight = Math.min(height - 6 * margin, shapeWidth * 2);
+        float left = (width - count * slotWidth) / 2 + (slotWidth - shapeWidth) / 2;
+        float top = (height - shapeHeight) / 2;
+        g.setStroke(new BasicStroke(Math.max(1, shapeWidth / 16)));
+        for (int i = 0; i < count; i++) {
+            Shape shape = shape(feature(features, 2), left + i * slotWidth, top, shapeWidth, shapeHeight);
+            shade(g, shape, color, shading);
+            g.setColor(color);
+            g.draw(shape);
+        }
+
+        if (features.length > 4) {
+            StringBuilder values = new StringBuilder();
+            for (int i = 4; i < features.length; i++)
+                values.append(i == 4 ? "" : " ").append(Integer.toString(features[i] + 1, Character.MAX_RADIX));
+            g.setFont(new Font("SansSerif", Font.BOLD, Math.max(8, Math.round(2.5f * margin))));
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(values.toString(), width - 2 * margin - g.getFontMetrics().stringWidth(values.toString()),
+                    height - 2 * margin);
+        }
+    }
+
+    /**
+     * @param features - a card's features.
+     * @param feature  - a feature number.
+     * @return - the value of the feature (0 if the card has no such feature).
+     */
+    private static int feature(int[] features, int feature) {
+        return feature < features.length ? features[feature] : 0;
+    }
+
+    private Color color(int value) {
+        if (value < PALETTE.length) return PALETTE[value];
+        return Color.getHSBColor((float) value / config.featureSize, 0.8f, 0.75f);
+    }
+
+    private static Shape shape(int value, float x, float y, float width, float height) {
+        switch (value) {
+            case 0:
+                return new RoundRectangle2D.Float(x, y, width, height, width, width);
+            case 1: {
+                Path2D.Float diamond = new Path2D.Float();
+                diamond.moveTo(x + width / 2, y);
+                diamond.lineTo(x + width, y + height / 2);
+                diamond.lineTo(x + width / 2, y + height);
+                diamond.lineTo(x, y + height / 2);
+                diamond.closePath();
+                return diamond;
+            }
+            case 2: {
+                Path2D.Float wave = new Path2D.Float();
+                wave.moveTo(x + width * 0.3f, y);
+                wave.curveTo(x + width * 1.1f, y + height * 0.1f, x + width * 0.5f, y + height * 0.5f, x + width, y + height * 0.9f);
+                wave.curveTo(x + width, y + height, x + width * 0.8f, y + height, x + width * 0.7f, y + height);
+                wave.curveTo(x - width * 0.1f, y + height * 0.9f, x + width * 0.5f, y + height * 0.5f, x, y + height * 0.1f);
+                wave.curveTo(x, y, x + width * 0.2f, y, x + width * 0.3f, y);
+                return wave;
+            }
+            default: { // a regular polygon with value + 2 sides (5 and on)
+                int sides = value + 2;
+                Path2D.Float polygon = new Path2D.Float();
+                for (int i = 0; i < sides; i++) {
+                    double angle = -Math.PI / 2 + 2 * Math.PI * i / sides;
+                    float px = x + width / 2 + (float) Math.cos(angle) * width / 2;
+                    float py = y + height / 2 + (float) Math.sin(angle) * height / 2;
+                    if (i == 0) polygon.moveTo(px, py);
+                    else polygon.lineTo(px, py);
+                }
+                polygon.closePath();
+                return polygon;
+            }
+        }
+    }
+
+    private static void shade(Graphics2D g, Shape shape, Color color, int value) {
+        switch (value) {
+            case 0:
+                g.setColor(color);
+                g.fill(shape);
+                break;
+            case 1: {
+                Shape clip = g.getClip();
+                g.clip(shape);
+                g.setColor(color);
+                Rectangle2D bounds = shape.getBounds2D();
+                float step = (float) Math.max(3, bounds.getHeight() / 12);
+                for (float y = (float) bounds.getMinY(); y < bounds.getMaxY(); y += step)
+                    g.draw(new Rectangle2D.Float((float) bounds.getMinX(), y, (float) bounds.getWidth(), 0));
+                g.setClip(clip);
+                break;
+            }
+            case 2:
+                break;
+            default: // fills that fade out with the value
+                g.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 255 / (value - 1)));
+                g.fill(shape);
+        }
+    }
+}
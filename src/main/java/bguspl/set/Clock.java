@@ -0,0 +1,22 @@
+package bguspl.set;
+
+/**
+ * The source of time of a game. All the game's timing (turn timeouts, countdown updates and freezes) is measured and
+ * waited for through the clock, so it can run in real time or in simulated time.
+ */
+public interface Clock {
+
+    /**
+     * @return - the current time in milliseconds.
+     */
+    long millis();
+
+    /**
+     * Parks the calling thread until the clock reaches the deadline. Like LockSupport.park, it may also return early
+     * (e.g. when the thread is unparked), so callers re-check their condition in a loop.
+     *
+     * @param blocker  - the object the thread is waiting on (for thread dumps).
+     * @param deadline - the time (in milliseconds) to wait until.
+     */
+    void parkUntil(Object blocker, long deadline);
+}
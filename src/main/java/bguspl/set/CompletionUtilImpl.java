@@ -0,0 +1,201 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Util implementation that finds sets by completion instead of enumerating every combination of cards.
+ * A set has featureSize cards, and the last card of a set is uniquely determined by the others: for every feature
+ * the first featureSize - 1 cards are either all the same (the last card has the same value) or all different
+ * (the last card has the missing value, i.e. the modular sum of all the values is featureSize * (featureSize - 1) / 2).
+ * The solver picks the first featureSize - 1 cards depth first, prunes prefixes that already break a feature,
+ * computes the completing card id and looks it up in a bitset of the cards present.
+ * Decks with less than 3 values per feature fall back to the PackedUtilImpl behaviour.
+ */
+public class CompletionUtilImpl extends PackedUtilImpl {
+
+    /**
+     * The place value of each feature in a card id (i.e. featureSize ^ (featureCount - 1 - feature)).
+     */
+    private final int[] placeValues;
+
+    /**
+     * The features of each card, flattened (card * featureCount + feature).
+     */
+    private final int[] digits;
+
+    /**
+     * The sum of all feature values (i.e. the sum of the values of a feature that is different in all the cards).
+     */
+    private final int valuesSum;
+
+    public CompletionUtilImpl(Config config) {
+        super(config);
+
+        placeValues = new int[config.featureCount];
+        for (int i = config.featureCount - 1, value = 1; i >= 0; --i, value *= config.featureSize)
+            placeValues[i] = value;
+
+        digits = new int[config.deckSize * config.featureCount];
+        for (int card = 0; card < config.deckSize; ++card)
+            System.arraycopy(cardToFeatures(card), 0, digits, card * config.featureCount, config.featureCount);
+
+        valuesSum = config.featureSize * (config.featureSize - 1) / 2;
+    }
+
+    /**
+     * The state of a single search: the cards searched, the chosen prefix and the sets found so far.
+     */
+    protected class Search {
+
+        /**
+         * The cards searched (sorted in ascending order) and a bitset of the same cards.
+         */
+        protected final int[] cards;
+        private final long[] present;
+
+        /**
+         * The maximum number of sets to find and the sets found.
+         */
+        private final int count;
+        protected final List<int[]> sets = new ArrayList<>();
+
+        /**
+         * The chosen prefix: the cards, and for each prefix length the values seen and their sum per feature.
+         */
+        private final int[] chosen;
+        private final int[][] seen;
+        private final int[][] sums;
+
+        protected Search(int[] cards, int count) {
+            this(cards, bitset(cards), count);
+        }
+
+        protected Search(int[] cards, long[] present, int count) {
+            this.cards = cards;
+            this.present = present;
+            this.count = Math.max(count, 1);
+            chosen = new int[config.featureSize];
+            seen = new int[config.featureSize][config.featureCount];
+            sums = new int[config.featureSize][config.featureCount];
+        }
+
+        /**
+         * @return - true iff the search found count sets and should stop.
+         */
+        protected boolean done() {
+            return sets.size() >= count;
+        }
+
+        /**
+         * Adds a card to the chosen prefix.
+         *
+         * @param depth - the number of cards already chosen.
+         * @param card  - the card to add.
+         * @return - true iff every feature of the prefix is still all the same or all different.
+         */
+        protected boolean push(int depth, int card) {
+            chosen[depth] = card;
+            for (int i = 0, offset = card * config.featureCount; i < config.featureCount; ++i) {
+                int value = digits[offset + i], bit = 1 << value;
+                if (depth == 0) {
+                    seen[0][i] = bit;
+                    sums[0][i] = value;
+                    continue;
+                }
+                int values = seen[depth - 1][i];
+                if (values != bit && ((values & bit) != 0 || Integer.bitCount(values) != depth))
+                    return false;
+                seen[depth][i] = values | bit;
+                sums[depth][i] = sums[depth - 1][i] + value;
+            }
+            return true;
+        }
+
+        /**
+         * Extends the chosen prefix with cards[from..] in ascending order and completes it to sets.
+         *
+         * @param depth - the number of cards already chosen.
+         * @param from  - the index of the first card that may be chosen next.
+         * @return - true iff the search should stop.
+         */
+        protected boolean extend(int depth, int from) {
+            if (depth == config.featureSize - 1) {
+                // each set is reported once, from its smallest cards
+                int card = complete(depth);
+                int bound = from > 0 ? cards[from - 1] : -1;
+                if (card > bound && (present[card >>> 6] & (1L << card)) != 0) {
+                    int[] set = new int[config.featureSize];
+                    System.arraycopy(chosen, 0, set, 0, depth);
+                    set[depth] = card;
+                    Arrays.sort(set);
+                    sets.add(set);
+                }
+                return done();
+            }
+            for (int i = from; i < cards.length; ++i)
+                if (push(depth, cards[i]) && extend(depth + 1, i + 1))
+                    return true;
+            return false;
+        }
+
+        /**
+         * @param depth - the number of cards chosen (featureSize - 1).
+         * @return - the id of the card that completes the chosen prefix to a set.
+         */
+        private int complete(int depth) {
+            int card = 0;
+            for (int i = 0; i < config.featureCount; ++i) {
+                int values = seen[depth - 1][i];
+                int value = Integer.bitCount(values) == 1 ? Integer.numberOfTrailingZeros(values) : valuesSum - sums[depth - 1][i];
+                card += value * placeValues[i];
+            }
+            return card;
+        }
+
+        /**
+         * Searches the sets whose smallest card is cards[first].
+         *
+         * @param first - the index of the first card.
+         * @return - true iff the search should stop.
+         */
+        protected boolean searchFrom(int first) {
+            return push(0, cards[first]) && extend(1, first + 1);
+        }
+    }
+
+    /**
+     * @param cards - an array of card ids.
+     * @return - a bitset of the cards (indexed by card id).
+     */
+    protected long[] bitset(int[] cards) {
+        long[] present = new long[(config.deckSize + Long.SIZE - 1) / Long.SIZE];
+        for (int card : cards)
+            present[card >>> 6] |= 1L << card;
+        return present;
+    }
+
+    @Override
+    public List<int[]> findSets(int[] cards, int count) {
+        if (config.featureSize < 3) return super.findSets(cards, count);
+
+        int[] sorted = cards.clone();
+        Arrays.sort(sorted);
+        Search search = new Search(sorted, count);
+        for (int first = 0; first < search.cards.length; ++first)
+            if (search.searchFrom(first)) break;
+        return search.sets;
+    }
+
+    @Override
+    public List<int[]> findSetsContaining(int card, int[] cards, int count) {
+        if (config.featureSize < 3) return super.findSetsContaining(card, cards, count);
+
+        int[] sorted = cards.clone();
+        Arrays.sort(sorted);
+        Search search = new Search(sorted, count);
+        if (search.push(0, card)) search.extend(1, 0);
+        return search.sets;
+    }
+}
@@ -21,6 +21,11 @@ public class Config {
     public final long randomSpinMin;
     public final long randomSpinMax;
 
+    /**
+     * The seed of the game's random number generator (a random seed if not configured)
+     */
+    public final long randomSeed;
+
     /**
      * The number of features on the cards (e.g. shape, color etc.)
      */
@@ -36,6 +41,26 @@ public class Config {
      */
     public final int deckSize;
 
+    /**
+     * The Util implementation to use ("default", "packed", "completion" or "parallel")
+     */
+    public final String utilImpl;
+
+    /**
+     * The number of worker threads of the parallel Util implementation (0 for the common fork/join pool)
+     */
+    public final int utilParallelism;
+
+    /**
+     * Whether the parallel Util implementation should return the sets in a deterministic order
+     */
+    public final boolean utilOrderedSets;
+
+    /**
+     * Whether the player threads and the computer players' threads should be virtual threads (needs Java 21, experimental: see ThreadsTest)
+     */
+    public final boolean virtualThreads;
+
     /**
      * The number of human players in the game.
      */
@@ -77,7 +102,12 @@ public class Config {
     public final long pointFreezeMillis;
 
     /**
-     * The number of milliseconds to delay before removing/placing a card on the table
+     * The number of milliseconds a computer player waits between key presses
+     */
+    public final long computerPlayerDelayMillis;
+
+    /**
+     * The number of milliseconds the user interface takes to show each card removed from/placed on the table
      */
     public final long tableDelayMillis;
 
@@ -132,12 +162,34 @@ public class Config {
      */
     public final int fontSize;
 
+    /**
+     * The number of players shown in the players panel (with more players, only the top players by score are shown)
+     */
+    public final int leaderboardSize;
+
+    /**
+     * The maximal number of times per second the display is updated with the game's changes (0 for no limit)
+     */
+    public final int uiFrameRate;
+
+    /**
+     * True to measure the user interface: logs the time to the first frame, and the time the event dispatch thread is busy, every second
+     */
+    public final boolean uiStatistics;
+
+    /**
+     * The maximal number of card images kept in memory (the first ones of the deck are loaded at startup, the rest on demand)
+     * Note: at least the table size, so the images of the cards on the table fit in the cache
+     */
+    public final int cardImageCacheSize;
+
     /**
      * The scancodes of the keyboard input data for each player
      * Notes:
      * 1. This should correspond to the number of human players and the dimensions of the table card grid (i.e. the
      * first n codes are for the first row, the 2nd n codes are for the 2nd row etc., n being the number of columns).
      * 2. If the number of entries here does not match the number of human players a warning will be issued
+     * 3. Only the human players have keys, so any number of computer players costs no key data
      */
     private final int[][] playerKeys;
 
@@ -155,7 +207,7 @@ public class Config {
      * @param filename - the name of the configuration file.
      * @return - a properties object with the configuration file contents.
      */
-    private static Properties loadProperties(String filename, Logger logger) {
+    static Properties loadProperties(String filename, Logger logger) {
 
         Properties properties = new Properties();
 
@@ -193,21 +245,29 @@ public class Config {
         if (randomSpinMax < randomSpinMin || randomSpinMin < 0)
             logger.severe("invalid random spin cycles: max: " + randomSpinMax + " min: " + randomSpinMin);
 
+        String seed = properties.getProperty("RandomSeed", "").trim();
+        randomSeed = seed.isEmpty() ? System.nanoTime() : Long.parseLong(seed);
+
         // cards settings
         featureSize = Integer.parseInt(properties.getProperty("FeatureSize", "3"));
         featureCount = Integer.parseInt(properties.getProperty("FeatureCount", "4"));
         deckSize = (int) Math.pow(featureSize, featureCount);
+        utilImpl = properties.getProperty("UtilImpl", "default").trim().toLowerCase();
+        utilParallelism = Integer.parseInt(properties.getProperty("UtilParallelism", "0"));
+        utilOrderedSets = Boolean.parseBoolean(properties.getProperty("UtilOrderedSets", "False"));
 
         // gameplay settings
         humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
         computerPlayers = Integer.parseInt(properties.getProperty("ComputerPlayers", "0"));
         players = humanPlayers + computerPlayers;
+        virtualThreads = Boolean.parseBoolean(properties.getProperty("VirtualThreads", "False"));
 
         hints = Boolean.parseBoolean(properties.getProperty("Hints", "False"));
         turnTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutSeconds", "60")) * 1000.0);
         turnTimeoutWarningMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutWarningSeconds", "60")) * 1000.0);
         pointFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PointFreezeSeconds", "1")) * 1000.0);
         penaltyFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PenaltyFreezeSeconds", "3")) * 1000.0);
+        computerPlayerDelayMillis = (long) (Double.parseDouble(properties.getProperty("ComputerPlayerDelaySeconds", "0.001")) * 1000.0);
         tableDelayMillis = (long) (Double.parseDouble(properties.getProperty("TableDelaySeconds", "0.1")) * 1000.0);
         endGamePauseMillies = (long) (Double.parseDouble(properties.getProperty("EndGamePauseSeconds", "5")) * 1000.0);
 
@@ -224,10 +284,19 @@ public class Config {
         playerCellWidth = Integer.parseInt(properties.getProperty("PlayerCellWidth", "300"));
         playerCellHeight = Integer.parseInt(properties.getProperty("PlayerCellHeight", "40"));
         fontSize = Integer.parseInt(properties.getProperty("FontSize", "40"));
+        leaderboardSize = Integer.parseInt(properties.getProperty("LeaderboardSize", "8"));
+        uiFrameRate = Integer.parseInt(properties.getProperty("UiFrameRate", "60"));
+        uiStatistics = Boolean.parseBoolean(properties.getProperty("UiStatistics", "False"));
+        int cacheSize = Integer.parseInt(properties.getProperty("CardImageCacheSize", "128"));
+        if (cacheSize < tableSize)
+            logger.severe("warning: card image cache size (" + cacheSize + ") is smaller than the table size (" + tableSize + "), using " + tableSize + ".");
+        cardImageCacheSize = Math.max(cacheSize, tableSize);
 
         // keyboard input data
-        playerKeys = new int[players][rows * columns];
-        for (int i = 0; i < players; i++) {
+        playerKeys = new int[players][];
+        Arrays.fill(playerKeys, humanPlayers, players, new int[0]); // computer players have no keys
+        for (int i = 0; i < humanPlayers; i++) {
+            playerKeys[i] = new int[tableSize];
             String defaultCodes = "";
             if (i < 2) defaultCodes = playerKeysDefaults[i];
             String playerKeysString = properties.getProperty("PlayerKeys" + (i + 1), defaultCodes);
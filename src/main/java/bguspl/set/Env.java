@@ -1,5 +1,6 @@
 package bguspl.set;
 
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
 public class Env {
@@ -8,11 +9,29 @@ public class Env {
     public final Config config;
     public final UserInterface ui;
     public final Util util;
+    public final RandomSource random;
+    public final Clock clock;
+    public final ThreadFactory threads;
 
-    public Env(Logger logger, Config config, UserInterface ui, Util util) {
+    public Env(Logger logger, Config config, UserInterface ui, Util util, RandomSource random, Clock clock, ThreadFactory threads) {
         this.logger = logger;
         this.config = config;
         this.ui = ui;
         this.util = util;
+        this.random = random;
+        this.clock = clock;
+        this.threads = threads;
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, RandomSource random, Clock clock) {
+        this(logger, config, ui, util, random, clock, Threads.factory(config, logger));
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, RandomSource random) {
+        this(logger, config, ui, util, random, new RealClock());
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util) {
+        this(logger, config, ui, util, new RandomSource(config.randomSeed, config.players));
     }
 }
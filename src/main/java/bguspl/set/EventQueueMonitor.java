@@ -0,0 +1,57 @@
+package bguspl.set;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the time the event dispatch thread spends dispatching events (painting included) and logs it once a
+ * second, to see how much of the EDT the game's UI updates take. Installed only when UiStatistics is on.
+ */
+class EventQueueMonitor extends EventQueue {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Logger logger;
+
+    /**
+     * The start of the current measurement second, and the busy time and number of events in it (EDT only).
+     */
+    private long secondStart = System.nanoTime();
+    private long busyNanos;
+    private int events;
+
+    private EventQueueMonitor(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Replaces the system event queue with a monitor.
+     *
+     * @param logger - the logger to report the EDT time to.
+     */
+    static void install(Logger logger) {
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new EventQueueMonitor(logger));
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = System.nanoTime();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            busyNanos += end - start;
+            events++;
+            if (end - secondStart >= NANOS_PER_SECOND) {
+                logger.log(Level.INFO, String.format("EDT busy %.1f ms/s (%d events)",
+                        busyNanos / 1e6 * NANOS_PER_SECOND / (end - secondStart), events));
+                secondStart = end;
+                busyNanos = 0;
+                events = 0;
+            }
+        }
+    }
+}
@@ -23,7 +23,7 @@ class InputManager extends KeyAdapter {
         this.logger = logger;
 
         // initialize the keys
-        for (int player = 0; player < config.players; ++player)
+        for (int player = 0; player < config.humanPlayers; ++player) // computer players have no keys
             for (int i = 0; i < config.playerKeys(player).length; i++) {
                 int keyCode = config.playerKeys(player)[i];
                 if (keyCode >= keyMap.length) reallocArrays(keyCode); // enlarge the array for higher key codes
@@ -0,0 +1,98 @@
+package bguspl.set;
+
+import java.util.Arrays;
+
+/**
+ * The top players by score, kept up to date one score change at a time. A score change costs O(size) regardless of
+ * the number of players, so it is cheap for hundreds of players.
+ *
+ * @inv score(player(i)) >= score(player(i + 1)) for 0 <= i < size() - 1
+ * @inv rank(player(i)) == i
+ */
+public class Leaderboard {
+
+    /**
+     * The score of each player (indexed by player id).
+     */
+    private final int[] scores;
+
+    /**
+     * The players on the board, best first.
+     */
+    private final int[] board;
+
+    /**
+     * The rank of each player on the board (-1 if the player is not on the board).
+     */
+    private final int[] ranks;
+
+    /**
+     * @param players - the number of players (all with score 0).
+     * @param size    - the number of places on the board.
+     */
+    public Leaderboard(int players, int size) {
+        scores = new int[players];
+        board = new int[Math.min(players, size)];
+        ranks = new int[players];
+        Arrays.fill(ranks, -1);
+        for (int rank = 0; rank < board.length; rank++) {
+            board[rank] = rank;
+            ranks[rank] = rank;
+        }
+    }
+
+    /**
+     * @return - the number of places on the board.
+     */
+    public int size() {
+        return board.length;
+    }
+
+    /**
+     * @param rank - a place on the board (0 for the first).
+     * @return - the player in that place.
+     */
+    public int player(int rank) {
+        return board[rank];
+    }
+
+    /**
+     * @param player - a player id.
+     * @return - the player's place on the board (-1 if not on the board).
+     */
+    public int rank(int player) {
+        return ranks[player];
+    }
+
+    /**
+     * @param player - a player id.
+     * @return - the player's score.
+     */
+    public int score(int player) {
+        return scores[player];
+    }
+
+    /**
+     * Updates a player's score and moves it up the board if it passed other players (scores only go up).
+     *
+     * @param player - a player id.
+     * @param score  - the player's new score.
+     * @return - the player's place on the board (-1 if not on the board).
+     */
+    public int setScore(int player, int score) {
+        scores[player] = score;
+        int rank = ranks[player];
+        if (rank == -1) {
+            rank = board.length - 1;
+            if (rank < 0 || score <= scores[board[rank]]) return -1; // not good enough for the board
+            ranks[board[rank]] = -1;
+        }
+        for (; rank > 0 && scores[board[rank - 1]] < score; rank--) {
+            board[rank] = board[rank - 1];
+            ranks[board[rank]] = rank;
+        }
+        board[rank] = player;
+        ranks[player] = rank;
+        return rank;
+    }
+}
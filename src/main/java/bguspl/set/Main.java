@@ -43,12 +43,12 @@ public class Main {
         logger = initLogger();
         ThreadLogger.logStart(logger, Thread.currentThread().getName());
         Config config = new Config(logger, "config.properties");
-        Util util = new UtilImpl(config);
+        Util util = createUtil(logger, config);
 
         Player[] players = new Player[config.players];
         UserInterface ui = null;
         try {
-            ui = new UserInterfaceSwing(logger, config, players);
+            ui = new UserInterfaceSwing(logger, config, util, players);
         } catch (UnsupportedOperationException | IllegalArgumentException e) {
             logger.severe("error creating swing user interface: " + e.getMessage());
             logger.severe("will try to run without user interface");
@@ -57,7 +57,7 @@ public class Main {
         }
         ui = new UserInterfaceDecorator(logger, util, ui);
 
-        Env env = new Env(logger, config, ui, util);
+        Env env = new Env(logger, config, ui, util, new RandomSource(config.randomSeed, config.players));
 
         // create the game entities
         Table table = new Table(env);
@@ -83,6 +83,29 @@ public class Main {
         }
     }
 
+    /**
+     * Creates the Util implementation selected in the configuration.
+     *
+     * @param logger - the logger to report an unknown selection to.
+     * @param config - the game configuration.
+     * @return - the selected Util implementation (UtilImpl if the selection is unknown).
+     */
+    public static Util createUtil(Logger logger, Config config) {
+        switch (config.utilImpl) {
+            case "default":
+                return new UtilImpl(config);
+            case "packed":
+                return new PackedUtilImpl(config);
+            case "completion":
+                return new CompletionUtilImpl(config);
+            case "parallel":
+                return new ParallelUtilImpl(config);
+            default:
+                logger.severe("warning: unknown util implementation " + config.utilImpl + ". Using default.");
+                return new UtilImpl(config);
+        }
+    }
+
     private static Logger initLogger() {
 
         //just to make our log file nicer :)
@@ -0,0 +1,82 @@
+package bguspl.set;
+
+/**
+ * A Util implementation that precomputes the features of every card in the deck.
+ * Each card is packed into a long bit mask holding a one-hot encoding of its features (bit
+ * feature * featureSize + value is set), so testing a set takes a few bitwise operations and no allocations.
+ * Decks whose encoding does not fit in a long fall back to the UtilImpl behaviour.
+ */
+public class PackedUtilImpl extends UtilImpl {
+
+    protected final Config config;
+
+    /**
+     * The features of each card (indexed by card id).
+     */
+    private final int[][] features;
+
+    /**
+     * The one-hot feature mask of each card (indexed by card id).
+     */
+    protected final long[] masks;
+
+    /**
+     * The bits of the first feature in a card mask (shift by feature * featureSize for the others).
+     */
+    private final long featureMask;
+
+    /**
+     * True iff the one-hot encoding of a card fits in a long.
+     */
+    protected final boolean packed;
+
+    public PackedUtilImpl(Config config) {
+        super(config);
+        this.config = config;
+
+        features = new int[config.deckSize][];
+        for (int card = 0; card < config.deckSize; ++card)
+            features[card] = super.cardToFeatures(card);
+
+        packed = config.featureCount * config.featureSize <= Long.SIZE;
+        featureMask = packed ? (1L << config.featureSize) - 1 : 0;
+        masks = new long[packed ? config.deckSize : 0];
+        for (int card = 0; card < masks.length; ++card)
+            for (int i = 0; i < config.featureCount; ++i)
+                masks[card] |= 1L << (i * config.featureSize + features[card][i]);
+    }
+
+    @Override
+    public int[] cardToFeatures(int card) {
+        return features[card].clone();
+    }
+
+    @Override
+    public int[][] cardsToFeatures(int[] cards) {
+        int[][] result = new int[cards.length][];
+        for (int i = 0; i < cards.length; ++i)
+            result[i] = features[cards[i]].clone();
+        return result;
+    }
+
+    @Override
+    public boolean testSet(int[] cards) {
+        if (!packed) return super.testSet(cards);
+        if (cards.length == 3) {
+            // per feature: all same -> one bit, all different -> three bits; otherwise the xor drops the pair
+            long a = masks[cards[0]], b = masks[cards[1]], c = masks[cards[2]];
+            return (a ^ b ^ c) == (a | b | c);
+        }
+        if (cards.length == 0) return false;
+
+        long union = 0;
+        for (int card : cards)
+            union |= masks[card];
+        for (int i = 0; i < config.featureCount; ++i) {
+            int values = Long.bitCount(union & (featureMask << (i * config.featureSize)));
+            boolean sameSame = values == 1, butDifferent = values == cards.length;
+            if (sameSame == butDifferent) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,156 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Util implementation that runs the completion solver of CompletionUtilImpl on a ForkJoinPool.
+ * The index space of the first (smallest) card of a set is partitioned across the workers, and the search is
+ * cancelled once count sets were found. When config.utilOrderedSets is true, the sets returned are the same
+ * (and in the same order) as the ones returned by CompletionUtilImpl, otherwise any count sets may be returned.
+ * With config.utilParallelism > 0 the util owns its pool, whose worker threads are daemon threads: the game keeps a
+ * single util for the whole process, and code that creates more of them (e.g. tests) calls shutdown when done.
+ */
+public class ParallelUtilImpl extends CompletionUtilImpl {
+
+    /**
+     * Collections smaller than this are searched on the calling thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    /**
+     * The number of leaf tasks to create per worker (more leaves balance better, since low first card
+     * indices have much more work than high ones).
+     */
+    private static final int LEAVES_PER_WORKER = 8;
+
+    private final ForkJoinPool pool;
+
+    public ParallelUtilImpl(Config config) {
+        super(config);
+        pool = config.utilParallelism > 0 ? new ForkJoinPool(config.utilParallelism) : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Stops the util's own pool once its running searches end (the common pool is not affected).
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Decides when the workers of a single findSets call may stop searching.
+     */
+    private class Cancellation {
+
+        private final int count;
+
+        /**
+         * The number of sets found so far by all the workers (unordered mode).
+         */
+        private final AtomicInteger found = new AtomicInteger();
+
+        /**
+         * Every set with a first card index above the cutoff comes after the first count sets (ordered mode).
+         */
+        private final AtomicInteger cutoff = new AtomicInteger(Integer.MAX_VALUE);
+
+        private Cancellation(int count) {
+            this.count = Math.max(count, 1);
+        }
+
+        /**
+         * @param first - the index of the first card the worker is searching from.
+         * @return - true iff the sets with this first card are not needed.
+         */
+        private boolean cancelled(int first) {
+            return config.utilOrderedSets ? first > cutoff.get() : found.get() >= count;
+        }
+
+        /**
+         * Records that a worker found sets.
+         *
+         * @param first - the index of the first card of the last set found.
+         * @param added - the number of sets the worker added.
+         * @param total - the number of sets the worker has found so far.
+         */
+        private void found(int first, int added, int total) {
+            if (config.utilOrderedSets) {
+                if (total >= count) cutoff.accumulateAndGet(first, Math::min);
+            } else found.addAndGet(added);
+        }
+    }
+
+    private class SearchTask extends RecursiveTask<List<int[]>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] cards;
+        private final long[] present;
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final Cancellation cancellation;
+
+        private SearchTask(int[] cards, long[] present, int from, int to, int grain, Cancellation cancellation) {
+            this.cards = cards;
+            this.present = present;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                SearchTask left = new SearchTask(cards, present, from, middle, grain, cancellation);
+                left.fork();
+                List<int[]> right = new SearchTask(cards, present, middle, to, grain, cancellation).compute();
+                List<int[]> sets = left.join();
+                sets.addAll(right);
+                return sets;
+            }
+
+            Search search = new Search(cards, present, cancellation.count) {
+                private int first;
+                private int reported;
+
+                @Override
+                protected boolean searchFrom(int first) {
+                    this.first = first;
+                    return super.searchFrom(first);
+                }
+
+                @Override
+                protected boolean done() {
+                    if (sets.size() > reported) {
+                        cancellation.found(first, sets.size() - reported, sets.size());
+                        reported = sets.size();
+                    }
+                    return super.done() || cancellation.cancelled(first);
+                }
+            };
+            for (int first = from; first < to && !cancellation.cancelled(first); ++first)
+                if (search.searchFrom(first)) break;
+            return search.sets;
+        }
+    }
+
+    @Override
+    public List<int[]> findSets(int[] cards, int count) {
+        if (config.featureSize < 3 || cards.length < SEQUENTIAL_THRESHOLD) return super.findSets(cards, count);
+
+        int[] sorted = cards.clone();
+        Arrays.sort(sorted);
+        int grain = Math.max(1, sorted.length / (pool.getParallelism() * LEAVES_PER_WORKER));
+        List<int[]> sets = pool.invoke(new SearchTask(sorted, bitset(sorted), 0, sorted.length, grain, new Cancellation(count)));
+        int limit = Math.max(count, 1);
+        return sets.size() > limit ? new ArrayList<>(sets.subList(0, limit)) : sets;
+    }
+}
@@ -0,0 +1,54 @@
+package bguspl.set;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class provides the random number generators of a game.
+ * All the generators are split from a single seed in a fixed order, so the cards dealt and the keys pressed by each
+ * computer player are reproducible given the seed. A generator is not thread safe: each one belongs to one thread.
+ */
+public class RandomSource {
+
+    /**
+     * The seed all the generators were split from.
+     */
+    public final long seed;
+
+    /**
+     * The generator of the dealer thread.
+     */
+    private final SplittableRandom dealer;
+
+    /**
+     * The generators of the players (indexed by player id).
+     */
+    private final SplittableRandom[] players;
+
+    /**
+     * @param seed    - the game's random seed.
+     * @param players - the number of players in the game.
+     */
+    public RandomSource(long seed, int players) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        dealer = root.split();
+        this.players = new SplittableRandom[players];
+        for (int i = 0; i < players; ++i)
+            this.players[i] = root.split();
+    }
+
+    /**
+     * @return - the generator to be used by the dealer thread only.
+     */
+    public SplittableRandom dealer() {
+        return dealer;
+    }
+
+    /**
+     * @param player - the player id.
+     * @return - the generator to be used by the player's threads only (i.e. its AI thread).
+     */
+    public SplittableRandom player(int player) {
+        return players[player];
+    }
+}
@@ -0,0 +1,20 @@
+package bguspl.set;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The wall clock.
+ */
+public class RealClock implements Clock {
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void parkUntil(Object blocker, long deadline) {
+        long remaining = deadline - millis();
+        if (remaining > 0) LockSupport.parkNanos(blocker, remaining * 1_000_000L);
+    }
+}
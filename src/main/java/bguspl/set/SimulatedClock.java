@@ -0,0 +1,82 @@
+package bguspl.set;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A virtual clock that only moves when it is advanced, so tests and simulations control time deterministically and
+ * never wait for it in real time.
+ */
+public class SimulatedClock implements Clock {
+
+    private final AtomicLong now;
+
+    /**
+     * True iff a thread parking until a deadline advances the clock to the deadline at once (i.e. sleeps take no time).
+     */
+    private final boolean instantSleeps;
+
+    /**
+     * The threads parked until a deadline (woken up whenever the clock is advanced).
+     */
+    private final Set<Thread> parked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param start         - the initial time in milliseconds.
+     * @param instantSleeps - true iff parking until a deadline advances the clock to it at once (for single threaded
+     *                        tests); otherwise parked threads wait until another thread advances the clock.
+     */
+    public SimulatedClock(long start, boolean instantSleeps) {
+        this.now = new AtomicLong(start);
+        this.instantSleeps = instantSleeps;
+    }
+
+    /**
+     * Creates a clock that starts at 0 and moves only when advanced.
+     */
+    public SimulatedClock() {
+        this(0, false);
+    }
+
+    @Override
+    public long millis() {
+        return now.get();
+    }
+
+    /**
+     * Moves the clock forward and wakes up the parked threads (so they re-check their deadlines).
+     *
+     * @param millis - the number of milliseconds to move forward.
+     */
+    public void advance(long millis) {
+        now.addAndGet(millis);
+        parked.forEach(LockSupport::unpark);
+    }
+
+    /**
+     * Moves the clock forward to the given time (does nothing if the time already passed).
+     *
+     * @param time - the time in milliseconds.
+     */
+    public void advanceTo(long time) {
+        now.accumulateAndGet(time, Math::max);
+        parked.forEach(LockSupport::unpark);
+    }
+
+    @Override
+    public void parkUntil(Object blocker, long deadline) {
+        if (instantSleeps) {
+            advanceTo(deadline);
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        parked.add(thread);
+        try {
+            if (now.get() < deadline) LockSupport.park(blocker); // an advance since the check left the permit
+        } finally {
+            parked.remove(thread);
+        }
+    }
+}
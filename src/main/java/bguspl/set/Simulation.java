@@ -0,0 +1,145 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Plays full games headless and as fast as possible, for balancing and regression testing: only computer players,
+ * no user interface, no freezes and no delays, against a simulated clock that runs VIRTUAL_MILLIS_PER_MILLI times
+ * faster than real time (so a turn timeout of 60 seconds passes in 60 milliseconds). Reports the number of games
+ * played per second.
+ * Usage: java -cp target/classes bguspl.set.Simulation [games] [computer players] [config file]
+ */
+public class Simulation {
+
+    /**
+     * The number of simulated milliseconds the clock is advanced by in each real millisecond.
+     */
+    private static final long VIRTUAL_MILLIS_PER_MILLI = 1000;
+
+    /**
+     * A user interface that displays nothing and only keeps the results of the games.
+     */
+    private static class HeadlessUserInterface implements UserInterface {
+
+        private final LongAdder points = new LongAdder();
+        private final AtomicLongArray wins;
+        private final LongAdder draws = new LongAdder();
+
+        private HeadlessUserInterface(int players) {
+            wins = new AtomicLongArray(players);
+        }
+
+        @Override
+        public void placeCard(int card, int slot) {}
+
+        @Override
+        public void removeCard(int slot) {}
+
+        @Override
+        public void placeToken(int player, int slot) {}
+
+        @Override
+        public void removeTokens() {}
+
+        @Override
+        public void removeTokens(int slot) {}
+
+        @Override
+        public void removeToken(int player, int slot) {}
+
+        @Override
+        public void setCountdown(long millies, boolean warn) {}
+
+        @Override
+        public void setElapsed(long millies) {}
+
+        @Override
+        public void setFreeze(int player, long millies) {}
+
+        @Override
+        public void setScore(int player, int score) {
+            points.increment();
+        }
+
+        @Override
+        public void announceWinner(int[] players) {
+            if (players.length == 1) wins.incrementAndGet(players[0]);
+            else draws.increment();
+        }
+
+        @Override
+        public void dispose() {}
+    }
+
+    /**
+     * The simulation's main function.
+     *
+     * @param args - the number of games (default 100), the number of computer players (default from the
+     *               configuration) and the configuration file (default config.properties).
+     */
+    public static void main(String[] args) {
+
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Logger logger = Logger.getLogger("SetSimulationLogger");
+        logger.setUseParentHandlers(false);
+
+        Properties properties = Config.loadProperties(args.length > 2 ? args[2] : "config.properties", logger);
+        properties.setProperty("HumanPlayers", "0");
+        if (args.length > 1) properties.setProperty("ComputerPlayers", args[1]);
+        for (String delay : new String[]{"PointFreezeSeconds", "PenaltyFreezeSeconds", "TableDelaySeconds", "ComputerPlayerDelaySeconds", "EndGamePauseSeconds"})
+            properties.setProperty(delay, "0");
+        properties.setProperty("Hints", "False");
+        properties.setProperty("LogLevel", "OFF");
+        Config config = new Config(logger, properties);
+        if (config.players == 0) {
+            System.out.println("Usage: Simulation [games] [computer players] [config file] (at least one computer player)");
+            return;
+        }
+
+        Util util = Main.createUtil(logger, config);
+        HeadlessUserInterface ui = new HeadlessUserInterface(config.players);
+        long start = System.nanoTime();
+        for (int game = 0; game < games; game++)
+            play(new Env(logger, config, ui, util, new RandomSource(config.randomSeed + game, config.players), new SimulatedClock()));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] wins = new long[config.players];
+        Arrays.setAll(wins, ui.wins::get);
+        System.out.printf("Played %d games with %d computer players (seeds %d..%d) in %.2fs: %.1f games/s%n",
+                games, config.players, config.randomSeed, config.randomSeed + games - 1, seconds, games / seconds);
+        System.out.printf("Points per game: %.2f, wins per player: %s, draws: %d%n",
+                ui.points.sum() / (double) games, Arrays.toString(wins), ui.draws.sum());
+    }
+
+    /**
+     * Plays a full game, advancing its simulated clock until the game is over.
+     *
+     * @param env - the game environment (with a simulated clock).
+     */
+    static void play(Env env) {
+        Table table = new Table(env);
+        Player[] players = new Player[env.config.players];
+        Dealer dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, false);
+        Thread dealerThread = new Thread(dealer, "dealer");
+        dealerThread.start();
+        SimulatedClock clock = (SimulatedClock) env.clock;
+        try {
+            do {
+                clock.advance(VIRTUAL_MILLIS_PER_MILLI);
+                dealerThread.join(1);
+            } while (dealerThread.isAlive());
+        } catch (InterruptedException e) {
+            dealer.terminate();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package bguspl.set;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+/**
+ * Creates the threads of the players and the computer players: platform threads, or virtual threads when configured
+ * and supported by the running JVM (Java 21 or later). Virtual threads are created by reflection, so the game still
+ * builds and runs on older JVMs.
+ */
+public final class Threads {
+
+    /**
+     * The virtual thread factory of the running JVM (null if it has no virtual threads).
+     */
+    private static final ThreadFactory VIRTUAL = virtualThreadFactory();
+
+    private Threads() {}
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return - true iff the running JVM supports virtual threads.
+     */
+    public static boolean virtualThreadsSupported() {
+        return VIRTUAL != null;
+    }
+
+    /**
+     * Creates the thread factory selected in the configuration.
+     *
+     * @param config - the game configuration.
+     * @param logger - the logger to warn if virtual threads are not supported.
+     * @return - a virtual thread factory if configured and supported, a platform thread factory otherwise.
+     */
+    public static ThreadFactory factory(Config config, Logger logger) {
+        if (!config.virtualThreads) return Thread::new;
+        if (VIRTUAL == null) {
+            logger.severe("warning: virtual threads need Java 21 or later. Using platform threads.");
+            return Thread::new;
+        }
+        return VIRTUAL;
+    }
+}
@@ -0,0 +1,99 @@
+package bguspl.set;
+
+import java.awt.EventQueue;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries the UI changes made by the game threads to the event dispatch thread, at most once per display frame.
+ * The game threads only record the latest state in the UI model (last writer wins) and mark its flusher dirty; a
+ * single EventQueue.invokeLater per frame then runs every dirty flusher, which shows the latest state in Swing. So the
+ * EDT load is bounded by the frame rate, however many players there are and however fast the game runs.
+ */
+class UpdateBus {
+
+    /**
+     * The minimal time between two flushes (0 to flush as soon as the EDT can).
+     */
+    private final long frameNanos;
+
+    /**
+     * The flushers to run in the next flush, in the order they were marked.
+     */
+    private final Set<Runnable> dirty = new LinkedHashSet<>();
+
+    /**
+     * Whether the next flush is already scheduled, and when the last flush started (guarded by dirty).
+     */
+    private boolean scheduled;
+    private long lastFlush;
+
+    /**
+     * Delays the flushes that come too soon after the last one to the next frame.
+     */
+    private final ScheduledExecutorService frames = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ui-frames");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param framesPerSecond - the maximal number of flushes per second (0 for no limit).
+     */
+    UpdateBus(int framesPerSecond) {
+        frameNanos = framesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / framesPerSecond : 0;
+        lastFlush = System.nanoTime() - frameNanos;
+    }
+
+    /**
+     * Schedules running a flusher in the next frame (once, however many times it is marked before the frame).
+     *
+     * @param flusher - shows the latest state of a part of the UI (run on the EDT). Must be the same object every
+     *                time for the marks to be coalesced.
+     */
+    void markDirty(Runnable flusher) {
+        long delay;
+        synchronized (dirty) {
+            dirty.add(flusher);
+            if (scheduled) return;
+            scheduled = true;
+            delay = lastFlush + frameNanos - System.nanoTime();
+        }
+        if (delay <= 0) EventQueue.invokeLater(this::flush);
+        else try {
+            frames.schedule(() -> EventQueue.invokeLater(this::flush), delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ignored) {} // the UI is disposed
+    }
+
+    /**
+     * Runs the dirty flushers, including those marked while flushing (called on the EDT).
+     */
+    private void flush() {
+        synchronized (dirty) {
+            scheduled = false;
+            lastFlush = System.nanoTime();
+        }
+        while (true) {
+            Runnable flusher;
+            synchronized (dirty) {
+                Iterator<Runnable> it = dirty.iterator();
+                if (!it.hasNext()) return;
+                flusher = it.next();
+                it.remove();
+            }
+            flusher.run();
+        }
+    }
+
+    /**
+     * Stops scheduling frames.
+     */
+    void shutdown() {
+        frames.shutdownNow();
+    }
+}
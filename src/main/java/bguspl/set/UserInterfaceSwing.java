@@ -4,10 +4,14 @@ import bguspl.set.ex.Player;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.FileNotFoundException;
-import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -24,15 +28,30 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
     private final WinnerPanel winnerPanel;
     private final Config config;
 
+    /**
+     * Carries the changes made by the game threads to the panels, once per frame.
+     */
+    private final UpdateBus bus;
+
+    private final Logger logger;
+
+    /**
+     * When the window started to be created, for timing the first frame.
+     */
+    private final long createdNanos = System.nanoTime();
+
     static String intInBaseToPaddedString(int n, int padding, int base) {
         return format("%" + padding + "s", Integer.toString(n, base)).replace(' ', '0');
     }
 
-    public UserInterfaceSwing(Logger logger, Config config, Player[] players) {
+    public UserInterfaceSwing(Logger logger, Config config, Util util, Player[] players) {
 
         this.config = config;
+        this.logger = logger;
+        if (config.uiStatistics) EventQueueMonitor.install(logger);
+        bus = new UpdateBus(config.uiFrameRate);
         timerPanel = new TimerPanel();
-        gamePanel = new GamePanel();
+        gamePanel = new GamePanel(util);
         playersPanel = new PlayersPanel();
         winnerPanel = new WinnerPanel();
 
@@ -73,6 +92,14 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
 
         private final JLabel timerField;
 
+        /**
+         * The latest timer text and color (guarded by lock), shown by the flusher.
+         */
+        private final Object lock = new Object();
+        private String text;
+        private Color color = Color.BLACK;
+        private final Runnable flusher = this::showTimer;
+
         private String generateTime(long millies, boolean warn) {
             if (warn)
                 return format("Remaining Time: %.2f", (double) millies / 1000.0f);
@@ -91,84 +118,202 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
         }
 
         private void setCountdown(long millies, boolean warn) {
-            timerField.setText(generateTime(millies, warn));
-            timerField.setForeground(warn ? Color.RED : Color.BLACK);
+            synchronized (lock) {
+                text = generateTime(millies, warn);
+                color = warn ? Color.RED : Color.BLACK;
+            }
+            bus.markDirty(flusher);
         }
 
         private void setElapsed(long millies) {
-            timerField.setText("Elapsed time: " + millies / 1000);
+            synchronized (lock) {
+                text = "Elapsed time: " + millies / 1000;
+            }
+            bus.markDirty(flusher);
+        }
+
+        private void showTimer() {
+            synchronized (lock) {
+                timerField.setText(text);
+                timerField.setForeground(color);
+            }
         }
     }
 
+    /**
+     * Shows the cards on the table and the players' tokens on them. A change repaints only the cell of its slot.
+     */
     private class GamePanel extends JLayeredPane {
 
-        private final Image emptyCard;
-        private final Image[] deck;
-        private final Image[][] grid;
-        private final boolean[][][] playerTokens;
-        private final JLabel[][] tokenText;
-
-        private Image loadImageResource(String filename) {
-            URL imageResource = getClass().getClassLoader().getResource(filename);
-            if (imageResource == null)
-                throw new RuntimeException(new FileNotFoundException(filename));
-            return new ImageIcon(imageResource).getImage();
-        }
+        /**
+         * The number of player names shown on a card (the rest are counted).
+         */
+        private static final int MAX_TOKEN_NAMES = 3;
 
-        private GamePanel() {
+        /**
+         * Marks a slot with no card change waiting to be shown.
+         */
+        private static final int UNCHANGED = -2;
 
-            setPreferredSize(new Dimension(config.columns * config.cellWidth, config.rows * config.cellHeight));
+        private final Image emptyCard;
 
-            // init deck and load all pictures from png files
-            assert config.featureSize < 10; // otherwise there will be naming conflicts
+        /**
+         * The card images, loaded in the background (a card placed before its image is loaded is shown as an empty
+         * card until it is).
+         */
+        private final CardImages images;
+
+        /**
+         * The images loaded since the last frame, by card (guarded by loadedImages). Shown from here and not read
+         * again from the cache, which may have evicted them already.
+         */
+        private final Map<Integer, Image> loadedImages = new HashMap<>();
+        private final Runnable loadedFlusher = this::showLoadedCards;
+
+        /**
+         * The card in each slot (-1 if none) and its image (null if none or not loaded yet). Used on the EDT only.
+         */
+        private final int[] slotCards;
+        private final Image[][] grid;
+        private boolean painted;
+
+        /**
+         * The players with a token in each slot, so a token change costs O(tokens in the slot) for any number of players.
+         */
+        private final BitSet[] playerTokens;
+
+        /**
+         * The token text shown on each slot (guarded by the slot's playerTokens).
+         */
+        private final String[] tokenTexts;
+
+        /**
+         * The slots changed since they were last painted (guarded by dirtySlots). They are painted together once a frame.
+         */
+        private final BitSet dirtySlots = new BitSet();
+        private final Runnable slotsFlusher = this::paintDirtySlots;
+
+        /**
+         * The slots whose card changed, in the order of their changes, and the latest card of each (-1 if emptied,
+         * UNCHANGED if not queued), all guarded by changedSlots. They are shown one every config.tableDelayMillis (the
+         * game does not wait for them). A slot is queued once however many times it changes, so the table shown lags
+         * the game by at most tableSize changes, and the tokens of a queued slot are shown with its new card.
+         */
+        private final Queue<Integer> changedSlots = new ArrayDeque<>();
+        private final int[] changedCards;
+        private final Timer cardTimer;
+        private final Runnable cardsFlusher = this::showCardChanges;
+
+        private GamePanel(Util util) {
 
-            // load the image resources
-            deck = new Image[config.deckSize];
-            for (int i = 0; i < config.deckSize; ++i)
-                deck[i] = loadImageResource("cards/" + intInBaseToPaddedString(i, config.featureCount, config.featureSize) + ".png");
-            emptyCard = loadImageResource("cards/empty_card.png");
+            setPreferredSize(new Dimension(config.columns * config.cellWidth, config.rows * config.cellHeight));
 
+            slotCards = new int[config.tableSize];
+            Arrays.fill(slotCards, -1); // init the cards on the table grid as empty cards
+            changedCards = new int[config.tableSize];
+            Arrays.fill(changedCards, UNCHANGED);
             grid = new Image[config.rows][config.columns];
-            tokenText = new JLabel[config.rows][config.columns];
-            playerTokens = new boolean[config.players][config.rows][config.columns];
-            for (int row = 0; row < config.rows; row++) {
-                for (int column = 0; column < config.columns; column++) {
-                    // init the cards on the table grid as empty cards
-                    grid[row][column] = emptyCard;
-
-                    // init the JLabel selection overlay
-                    tokenText[row][column] = new JLabel("");
-                    tokenText[row][column].setVerticalAlignment(JLabel.TOP);
-                    tokenText[row][column].setHorizontalAlignment(JLabel.CENTER);
-                    tokenText[row][column].setOpaque(false);
-                    tokenText[row][column].setBorder(BorderFactory.createLineBorder(Color.black));
-                    tokenText[row][column].setBounds((column * config.cellWidth), (row * config.cellHeight), config.cellWidth, config.cellHeight);
-                    add(tokenText[row][column]);
+
+            // start loading the card images in the background
+            images = new CardImages(config, logger, util, (image, card) -> {
+                synchronized (loadedImages) {
+                    loadedImages.put(card, image);
                 }
+                bus.markDirty(loadedFlusher);
+            });
+            emptyCard = images.emptyCard;
+            playerTokens = new BitSet[config.tableSize];
+            Arrays.setAll(playerTokens, slot -> new BitSet());
+            tokenTexts = new String[config.tableSize];
+            Arrays.fill(tokenTexts, "");
+            setFont(UIManager.getFont("Label.font"));
+
+            cardTimer = new Timer((int) Math.max(1, config.tableDelayMillis), e -> {
+                if (!showNextCardChange()) ((Timer) e.getSource()).stop();
+            });
+        }
+
+        /**
+         * Queues a card change to be shown after the changes of the other slots before it, on the event dispatch
+         * thread. If the slot is already queued, its queued change is replaced.
+         *
+         * @param slot - the slot that changed.
+         * @param card - the card placed in the slot (-1 if it was emptied).
+         */
+        private void changeCard(int slot, int card) {
+            synchronized (changedSlots) {
+                if (changedCards[slot] == UNCHANGED) changedSlots.add(slot);
+                changedCards[slot] = card;
+            }
+            bus.markDirty(cardsFlusher);
+        }
+
+        /**
+         * Shows the queued card changes: all of them if there is no table delay, otherwise starts the card timer to
+         * show them one by one (called on the event dispatch thread).
+         */
+        private void showCardChanges() {
+            if (config.tableDelayMillis > 0) {
+                if (!cardTimer.isRunning()) cardTimer.start();
+                return;
             }
+            while (showNextCardChange()) ;
+        }
+
+        /**
+         * Shows the next queued card change (called on the event dispatch thread).
+         *
+         * @return - false if there was no change to show.
+         */
+        private boolean showNextCardChange() {
+            int slot;
+            int card;
+            synchronized (changedSlots) {
+                Integer next = changedSlots.poll();
+                if (next == null) return false;
+                slot = next;
+                card = changedCards[slot];
+                changedCards[slot] = UNCHANGED;
+            }
+            slotCards[slot] = card;
+            grid[slot / config.columns][slot % config.columns] = card == -1 ? null : images.get(card);
+            repaintSlot(slot);
+            return true;
         }
 
         private void placeCard(int slot, int card) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = deck[card];
-            validate();
-            repaint();
+            changeCard(slot, card);
         }
 
         private void removeCard(int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = emptyCard;
-            validate();
-            repaint();
+            changeCard(slot, -1);
+        }
+
+        /**
+         * Shows the cards on the table whose images were loaded since they were placed (called on the EDT).
+         */
+        private void showLoadedCards() {
+            Map<Integer, Image> loaded;
+            synchronized (loadedImages) {
+                loaded = new HashMap<>(loadedImages);
+                loadedImages.clear();
+            }
+            for (int slot = 0; slot < config.tableSize; slot++) {
+                int row = slot / config.columns;
+                int column = slot % config.columns;
+                if (slotCards[slot] != -1 && grid[row][column] == null && loaded.containsKey(slotCards[slot])) {
+                    grid[row][column] = loaded.get(slotCards[slot]);
+                    repaintSlot(slot);
+                }
+            }
         }
 
         private void placeToken(int player, int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = true;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
+            synchronized (playerTokens[slot]) {
+                playerTokens[slot].set(player);
+                tokenTexts[slot] = generatePlayersTokenText(slot);
+            }
+            repaintSlot(slot);
         }
 
         private void removeTokens() {
@@ -177,81 +322,221 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
         }
 
         private void removeTokens(int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            for (int player = 0; player < playerTokens.length; player++) {
-                playerTokens[player][row][column] = false;
-                tokenText[row][column].setText(generatePlayersTokenText(row, column));
+            synchronized (playerTokens[slot]) {
+                playerTokens[slot].clear();
+                tokenTexts[slot] = "";
             }
+            repaintSlot(slot);
         }
 
         private void removeToken(int player, int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = false;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
+            synchronized (playerTokens[slot]) {
+                playerTokens[slot].clear(player);
+                tokenTexts[slot] = generatePlayersTokenText(slot);
+            }
+            repaintSlot(slot);
+        }
+
+        /**
+         * Marks a slot as changed, to be painted in the next frame.
+         *
+         * @param slot - the slot that changed.
+         */
+        private void repaintSlot(int slot) {
+            synchronized (dirtySlots) {
+                dirtySlots.set(slot);
+            }
+            bus.markDirty(slotsFlusher);
+        }
+
+        /**
+         * Paints the changed slots, each in its own cell rectangle (called on the EDT).
+         */
+        private void paintDirtySlots() {
+            BitSet slots;
+            synchronized (dirtySlots) {
+                slots = (BitSet) dirtySlots.clone();
+                dirtySlots.clear();
+            }
+            for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1))
+                paintImmediately((slot % config.columns) * config.cellWidth, (slot / config.columns) * config.cellHeight,
+                        config.cellWidth, config.cellHeight);
+        }
+
+        /**
+         * @param slot - a slot number.
+         * @return - the names of the first MAX_TOKEN_NAMES players with a token in the slot, and the number of others.
+         */
+        private String generatePlayersTokenText(int slot) {
+            BitSet tokens = playerTokens[slot];
+            StringBuilder text = new StringBuilder();
+            int names = 0;
+            for (int player = tokens.nextSetBit(0); player >= 0 && names < MAX_TOKEN_NAMES; player = tokens.nextSetBit(player + 1), names++)
+                text.append(names == 0 ? "" : ", ").append(config.playerNames[player]);
+            int others = tokens.cardinality() - names;
+            if (others > 0) text.append(" +").append(others);
+            return text.toString();
         }
 
-        private String generatePlayersTokenText(int row, int column) {
-            String text = "";
-            for (int player = 0; player < config.players; player++) {
-                if (playerTokens[player][row][column])
-                    text = text.concat(config.playerNames[player] + ", ");
+        /**
+         * @param slot - a slot number.
+         * @return - the token text to show on the slot (none while the slot's new card is not shown yet).
+         */
+        private String tokenText(int slot) {
+            synchronized (changedSlots) {
+                if (changedCards[slot] != UNCHANGED) return "";
+            }
+            synchronized (playerTokens[slot]) {
+                return tokenTexts[slot];
             }
-            if (text.length() < 2)
-                return "";
-            return text.substring(0, text.length() - 2);
         }
 
         @Override
         public void paintComponent(Graphics g) {
-            // draw card images
-            for (int row = 0; row < config.rows; row++)
-                for (int column = 0; column < config.columns; column++)
-                    g.drawImage(grid[row][column], (column * config.cellWidth), (row * config.cellHeight), this);
+            if (!painted) {
+                painted = true;
+                if (config.uiStatistics) logger.log(Level.INFO, "first frame painted " + (System.nanoTime() - createdNanos) / 1_000_000 + "ms after creating the window.");
+            }
+            // draw only the cells in the clip (a single cell when painting a changed slot)
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) clip = new Rectangle(getSize());
+            int firstRow = Math.max(0, clip.y / config.cellHeight);
+            int lastRow = Math.min(config.rows - 1, (clip.y + clip.height - 1) / config.cellHeight);
+            int firstColumn = Math.max(0, clip.x / config.cellWidth);
+            int lastColumn = Math.min(config.columns - 1, (clip.x + clip.width - 1) / config.cellWidth);
+            FontMetrics metrics = g.getFontMetrics();
+            for (int row = firstRow; row <= lastRow; row++)
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    int x = column * config.cellWidth;
+                    int y = row * config.cellHeight;
+                    g.drawImage(grid[row][column] != null ? grid[row][column] : emptyCard, x, y, this);
+                    g.setColor(Color.BLACK);
+                    g.drawRect(x, y, config.cellWidth - 1, config.cellHeight - 1);
+                    String text = tokenText(row * config.columns + column);
+                    g.drawString(text, x + (config.cellWidth - metrics.stringWidth(text)) / 2, y + metrics.getAscent());
+                }
         }
     }
 
+    /**
+     * Shows the name and score of each player, one player per column. With more than config.leaderboardSize players
+     * it degrades to a leaderboard: the columns show the top players by score, best first.
+     */
     private class PlayersPanel extends JPanel {
 
         private final JLabel[][] playersTable;
 
+        /**
+         * The top players by score (null if every player has a column of its own).
+         */
+        private final Leaderboard leaderboard;
+
+        /**
+         * The freeze time left and score of each player, and the columns changed since they were last shown (all
+         * guarded by lock). The changed columns are shown together once a frame.
+         */
+        private final Object lock = new Object();
+        private final long[] freezes;
+        private final int[] scores;
+        private final BitSet dirtyColumns = new BitSet();
+        private final Runnable flusher = this::showDirtyColumns;
+
         private PlayersPanel() {
-            this.setLayout(new GridLayout(2, config.players));
-            this.setPreferredSize(new Dimension(config.players * config.playerCellWidth, config.rows * config.playerCellHeight));
-            this.playersTable = new JLabel[2][config.players];
-            for (int i = 0; i < config.players; i++) {
-                this.playersTable[0][i] = new JLabel(config.playerNames[i]);
+            int columns = Math.min(config.players, config.leaderboardSize);
+            this.leaderboard = config.players > columns ? new Leaderboard(config.players, columns) : null;
+            this.freezes = new long[config.players];
+            this.scores = new int[config.players];
+            this.setLayout(new GridLayout(2, columns));
+            this.setPreferredSize(new Dimension(columns * config.playerCellWidth, config.rows * config.playerCellHeight));
+            this.playersTable = new JLabel[2][columns];
+            for (int i = 0; i < columns; i++) {
+                this.playersTable[0][i] = new JLabel();
                 this.playersTable[0][i].setFont(new Font("Serif", Font.BOLD, config.fontSize));
                 this.playersTable[0][i].setHorizontalAlignment(JLabel.CENTER);
                 this.add(playersTable[0][i]);
             }
 
-            for (int i = 0; i < config.players; i++) {
+            for (int i = 0; i < columns; i++) {
                 this.playersTable[1][i] = new JLabel("0");
                 this.playersTable[1][i].setFont(new Font("Serif", Font.PLAIN, config.fontSize));
                 this.playersTable[1][i].setHorizontalAlignment(JLabel.CENTER);
                 this.add(playersTable[1][i]);
             }
+            for (int i = 0; i < columns; i++)
+                showColumn(i);
         }
 
-        private void setFreeze(int player, long millies) {
-            if (millies > 0) {
-                this.playersTable[0][player].setText(config.playerNames[player] + " (" + millies / 1000 + ")");
-                this.playersTable[0][player].setForeground(Color.RED);
+        /**
+         * @param player - a player id.
+         * @return - the column showing the player (-1 if the player is not shown).
+         */
+        private int column(int player) {
+            return leaderboard == null ? player : leaderboard.rank(player);
+        }
+
+        /**
+         * Shows the player of the given column.
+         *
+         * @param column - a column of the players table.
+         */
+        private void showColumn(int column) {
+            int player = leaderboard == null ? column : leaderboard.player(column);
+            String name = leaderboard == null ? config.playerNames[player] : (column + 1) + ". " + config.playerNames[player];
+            if (freezes[player] > 0) {
+                this.playersTable[0][column].setText(name + " (" + freezes[player] / 1000 + ")");
+                this.playersTable[0][column].setForeground(Color.RED);
             } else {
-                this.playersTable[0][player].setText(config.playerNames[player]);
-                this.playersTable[0][player].setForeground(Color.BLACK);
+                this.playersTable[0][column].setText(name);
+                this.playersTable[0][column].setForeground(Color.BLACK);
+            }
+            playersTable[1][column].setText(Integer.toString(scores[player]));
+        }
+
+        /**
+         * Shows the columns changed since they were last shown (called on the EDT).
+         */
+        private void showDirtyColumns() {
+            synchronized (lock) {
+                for (int column = dirtyColumns.nextSetBit(0); column >= 0; column = dirtyColumns.nextSetBit(column + 1))
+                    showColumn(column);
+                dirtyColumns.clear();
             }
         }
 
+        private void setFreeze(int player, long millies) {
+            synchronized (lock) {
+                freezes[player] = millies;
+                int column = column(player);
+                if (column == -1) return;
+                dirtyColumns.set(column);
+            }
+            bus.markDirty(flusher);
+        }
+
         private void setScore(int player, int score) {
-            playersTable[1][player].setText(Integer.toString(score));
+            synchronized (lock) {
+                scores[player] = score;
+                if (leaderboard == null)
+                    dirtyColumns.set(player);
+                else {
+                    int from = leaderboard.rank(player);
+                    int to = leaderboard.setScore(player, score);
+                    if (to == -1) return; // not on the leaderboard
+                    if (from == -1) from = leaderboard.size() - 1;
+                    dirtyColumns.set(to, from + 1); // the columns the player passed moved down by one
+                }
+            }
+            bus.markDirty(flusher);
         }
     }
 
     private class WinnerPanel extends JPanel {
 
+        /**
+         * The number of winners named in a draw (the rest are counted).
+         */
+        private static final int MAX_WINNER_NAMES = 5;
+
         private final JLabel winnerAnnouncement;
 
         public WinnerPanel() {
@@ -268,7 +553,8 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
             String text;
             List<String> names = Arrays.stream(players).mapToObj(id -> config.playerNames[id]).collect(Collectors.toList());
             if (players.length == 1) text = "THE WINNER IS: " + names.get(0) + "!!!";
-            else text = "IT IS A DRAW: " + String.join(" AND ", names) + " WON!!!";
+            else if (players.length <= MAX_WINNER_NAMES) text = "IT IS A DRAW: " + String.join(" AND ", names) + " WON!!!";
+            else text = "IT IS A DRAW: " + String.join(", ", names.subList(0, MAX_WINNER_NAMES)) + " AND " + (players.length - MAX_WINNER_NAMES) + " MORE WON!!!";
             winnerAnnouncement.setText(text);
             timerPanel.setVisible(false);
         }
@@ -326,13 +612,17 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
 
     @Override
     public void announceWinner(int[] players) {
-        playersPanel.setVisible(false);
-        winnerPanel.announceWinner(players);
-        winnerPanel.setVisible(true);
+        bus.markDirty(() -> { // after the changes before it
+            playersPanel.setVisible(false);
+            winnerPanel.announceWinner(players);
+            winnerPanel.setVisible(true);
+        });
     }
 
     @Override
     public void dispose() {
+        bus.shutdown();
+        gamePanel.images.shutdown();
         super.dispose();
     }
 }
@@ -40,6 +40,25 @@ public interface Util {
      */
     List<int[]> findSets(List<Integer> deck, int count);
 
+    /**
+     * Finds and returns up to count sets in the given array of cards (see findSets above).
+     *
+     * @param cards - an array of card ids.
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    List<int[]> findSets(int[] cards, int count);
+
+    /**
+     * Finds and returns up to count sets that contain the given card and other cards from the given array.
+     *
+     * @param card  - the card id every set should contain.
+     * @param cards - an array of card ids (may not include the card itself).
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the (sorted) card ids of a legal set.
+     */
+    List<int[]> findSetsContaining(int card, int[] cards, int count);
+
     /**
      * Spin a random number of times (for debugging/testing).
      */
@@ -66,16 +66,21 @@ public class UtilImpl implements Util {
 
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
+        return findSets(deck.stream().mapToInt(Integer::intValue).toArray(), count);
+    }
+
+    @Override
+    public List<int[]> findSets(int[] deck, int count) {
         LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
+        int n = deck.length;
         int r = config.featureSize;
         int[] combination = new int[r];
 
         for (int i = 0; i < r; ++i)
             combination[i] = i;
 
-        while (combination[r - 1] < deck.size()) {
-            int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
+        while (combination[r - 1] < n) {
+            int[] cards = Arrays.stream(combination).map(i -> deck[i]).sorted().toArray();
             if (testSet(cards)) {
                 sets.add(cards);
                 if (sets.size() >= count) return sets;
@@ -90,6 +95,37 @@ public class UtilImpl implements Util {
         return sets;
     }
 
+    @Override
+    public List<int[]> findSetsContaining(int card, int[] cards, int count) {
+        LinkedList<int[]> sets = new LinkedList<>();
+        int n = cards.length;
+        int r = config.featureSize - 1;
+        if (r <= 0) return sets;
+        int[] combination = new int[r];
+
+        for (int i = 0; i < r; ++i)
+            combination[i] = i;
+
+        while (combination[r - 1] < n) {
+            int[] set = new int[r + 1];
+            set[0] = card;
+            for (int i = 0; i < r; ++i)
+                set[i + 1] = cards[combination[i]];
+            Arrays.sort(set);
+            if (testSet(set)) {
+                sets.add(set);
+                if (sets.size() >= count) return sets;
+            }
+
+            // generate next combination in lexicographic order
+            int t = r - 1;
+            while (t != 0 && combination[t] == n - r + t) --t;
+            combination[t]++;
+            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
+        }
+        return sets;
+    }
+
     public void spin() {
         if (config.randomSpinMax <= 0) return;
         long cycles = ThreadLocalRandom.current().nextLong(config.randomSpinMin, config.randomSpinMax);
@@ -0,0 +1,108 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of the cards on the table, at a given version. The table publishes a new board after every
+ * change, so the player threads can read a consistent board without locking.
+ *
+ * @inv version >= 0
+ * @inv card(x) == -1 iff !hasCard(x)
+ */
+public final class Board {
+
+    /**
+     * The number of changes made to the table up to this board.
+     */
+    public final long version;
+
+    /**
+     * The card in each slot (-1 if none).
+     */
+    private final int[] slotToCard;
+
+    /**
+     * The version in which each slot last changed.
+     */
+    private final long[] slotVersions;
+
+    /**
+     * The number of cards on the board.
+     */
+    private final int cardCount;
+
+    /**
+     * Creates an empty board.
+     *
+     * @param slots - the number of slots on the table.
+     */
+    public Board(int slots) {
+        this(0, filled(slots), new long[slots], 0);
+    }
+
+    private Board(long version, int[] slotToCard, long[] slotVersions, int cardCount) {
+        this.version = version;
+        this.slotToCard = slotToCard;
+        this.slotVersions = slotVersions;
+        this.cardCount = cardCount;
+    }
+
+    private static int[] filled(int slots) {
+        int[] slotToCard = new int[slots];
+        Arrays.fill(slotToCard, -1);
+        return slotToCard;
+    }
+
+    /**
+     * @param slot - the slot to change.
+     * @param card - the card to put in the slot (-1 to empty it).
+     * @return - the next version of the board, with the slot changed.
+     */
+    public Board with(int slot, int card) {
+        int[] cards = slotToCard.clone();
+        long[] versions = slotVersions.clone();
+        int count = cardCount + (card == -1 ? 0 : 1) - (cards[slot] == -1 ? 0 : 1);
+        cards[slot] = card;
+        versions[slot] = version + 1;
+        return new Board(version + 1, cards, versions, count);
+    }
+
+    /**
+     * @return - the number of slots on the board.
+     */
+    public int size() {
+        return slotToCard.length;
+    }
+
+    /**
+     * @param slot - a slot number.
+     * @return - the card in the slot (-1 if none).
+     */
+    public int card(int slot) {
+        return slotToCard[slot];
+    }
+
+    /**
+     * @param slot - a slot number.
+     * @return - true iff there is a card in the slot.
+     */
+    public boolean hasCard(int slot) {
+        return slotToCard[slot] != -1;
+    }
+
+    /**
+     * @return - the number of cards on the board.
+     */
+    public int countCards() {
+        return cardCount;
+    }
+
+    /**
+     * @param slot    - a slot number.
+     * @param version - a version of the table.
+     * @return - true iff the slot did not change since the given version (i.e. it holds the same card, or none).
+     */
+    public boolean unchangedSince(int slot, long version) {
+        return slotVersions[slot] <= version;
+    }
+}
@@ -0,0 +1,131 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A set claimed by a player, submitted to the dealer. The claim is an immutable snapshot of the claimed slots and the
+ * cards in them, taken at a known version of the table. The player parks on the claim until the dealer completes it
+ * with a verdict.
+ */
+public class Claim {
+
+    /**
+     * The dealer's verdict on a claim.
+     */
+    public enum Verdict {
+        /**
+         * The cards form a legal set: the player gets a point.
+         */
+        POINT,
+        /**
+         * The cards do not form a legal set: the player is penalized.
+         */
+        PENALTY,
+        /**
+         * The claim was dropped (e.g. one of its cards was removed first, or the game ended).
+         */
+        DISCARDED
+    }
+
+    /**
+     * The id of the player claiming the set.
+     */
+    public final int player;
+
+    /**
+     * The slots of the claimed cards, as the player placed its tokens.
+     */
+    private final int[] slots;
+
+    /**
+     * The cards in the claimed slots, at the time of the claim.
+     */
+    private final int[] cards;
+
+    /**
+     * The version of the table the cards were read at.
+     */
+    public final long version;
+
+    /**
+     * The time (in milliseconds) when the claim was submitted.
+     */
+    public final long timestamp;
+
+    private final CompletableFuture<Verdict> verdict = new CompletableFuture<>();
+
+    /**
+     * @param player    - the id of the player claiming the set.
+     * @param slots     - the slots of the claimed cards (copied).
+     * @param cards     - the cards in the claimed slots (copied).
+     * @param version   - the version of the table the cards were read at.
+     * @param timestamp - the time the claim was submitted.
+     */
+    public Claim(int player, int[] slots, int[] cards, long version, long timestamp) {
+        this.player = player;
+        this.slots = slots.clone();
+        this.cards = cards.clone();
+        this.version = version;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return - the number of slots claimed.
+     */
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * @param i - the index of the slot in the claim.
+     * @return - the i-th slot claimed.
+     */
+    public int slot(int i) {
+        return slots[i];
+    }
+
+    /**
+     * @param i - the index of the card in the claim.
+     * @return - the card in the i-th slot claimed.
+     */
+    public int card(int i) {
+        return cards[i];
+    }
+
+    /**
+     * @return - a copy of the cards claimed.
+     */
+    public int[] cards() {
+        return cards.clone();
+    }
+
+    /**
+     * @param board - the current board of the table the claim was made on.
+     * @return - true iff one of the claimed slots changed since the claim was made (so its cards are no longer
+     *           the cards on the table).
+     */
+    public boolean isStale(Board board) {
+        if (board.version == version) return false; // nothing changed at all
+        for (int slot : slots)
+            if (!board.unchangedSince(slot, version)) return true;
+        return false;
+    }
+
+    /**
+     * Completes the claim and releases the player waiting for it (only the first verdict counts).
+     *
+     * @param verdict - the dealer's verdict.
+     */
+    public void complete(Verdict verdict) {
+        this.verdict.complete(verdict);
+    }
+
+    /**
+     * Parks the calling thread until the claim is completed.
+     *
+     * @return - the dealer's verdict.
+     */
+    public Verdict await() {
+        return verdict.join();
+    }
+}
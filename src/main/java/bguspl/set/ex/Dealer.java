@@ -1,12 +1,11 @@
 package bguspl.set.ex;
 import bguspl.set.Env;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Queue;
-import java.util.Random;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.SplittableRandom;
+import java.util.Iterator;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -25,9 +24,20 @@ public class Dealer implements Runnable {
     private final Player[] players;
 
     /**
-     * The list of card ids that are left in the dealer's deck.
+     * The card ids that are left in the dealer's deck (the first deckSize entries, in no particular order).
      */
-    private final List<Integer> deck;
+    private final int[] deck;
+    private int deckSize;
+
+    /**
+     * The random number generator used for dealing cards.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Counts the sets that can still be formed from the cards in the deck and on the table.
+     */
+    private final SetCounter setsInPlay;
 
     /**
      * True iff game should be terminated due to an external event.
@@ -41,18 +51,45 @@ public class Dealer implements Runnable {
 
     private Thread[] threads;
 
-    private Queue<Player> SetsToTest;
+    /**
+     * An event the dealer thread reacts to: a set claimed by a player or termination.
+     */
+    private static final class Event {
+
+        private static final Event TERMINATE = new Event(null);
 
-    private ReentrantLock checklock = new ReentrantLock();
+        /**
+         * The set claimed (null for termination).
+         */
+        private final Claim claim;
+
+        private Event(Claim claim) {
+            this.claim = claim;
+        }
+    }
+
+    /**
+     * The pending events, in arrival order. The dealer thread parks on this channel between events.
+     */
+    private final EventChannel<Event> events;
+
+    /**
+     * The time of the next countdown display update (the only timed wake-up of the dealer thread besides the
+     * reshuffle deadline).
+     */
+    private long nextTickTime;
 
 
     public Dealer(Env env, Table table, Player[] players) {
         this.env = env;
         this.table = table;
         this.players = players;
-        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
+        deck = IntStream.range(0, env.config.deckSize).toArray();
+        deckSize = deck.length;
+        random = env.random.dealer();
+        setsInPlay = new SetCounter(env);
         threads = new Thread[players.length];
-        SetsToTest = new ConcurrentLinkedQueue<>();
+        events = new EventChannel<>();
     }
 
     /**
@@ -61,12 +98,14 @@ public class Dealer implements Runnable {
     @Override
     public void run() {
         env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " starting.");
+        env.logger.log(Level.INFO, "Dealing with random seed " + env.random.seed + ".");
         boolean canstart = false;
         do {
             placeCardsOnTable();
             if (!canstart) { //initializing it once
                 for (int i = 0; i < players.length; i++) { //initialize the threads
-                    threads[i] = new Thread(players[i]);
+                    threads[i] = env.threads.newThread(players[i]);
+                    threads[i].setName("player-" + players[i].id);
                     threads[i].start();
                 }
                 canstart = true;
@@ -90,52 +129,107 @@ public class Dealer implements Runnable {
      * The inner loop of the dealer thread that runs as long as the countdown did not time out.
      */
     private void timerLoop() {
-        reshuffleTime = System.currentTimeMillis() + env.config.turnTimeoutMillis;
-        env.ui.setCountdown(env.config.turnTimeoutMillis, false);
-        while (!terminate && System.currentTimeMillis() < reshuffleTime) {
-            updateTimerDisplay(reshuffleTime - System.currentTimeMillis() < env.config.turnTimeoutWarningMillis);
-            sleepUntilWokenOrTimeout();
-            if (!SetsToTest.isEmpty()) {
-                examine(SetsToTest.poll());
+        resetTimer();
+        List<Event> batch = new ArrayList<>();
+        while (!terminate && env.clock.millis() < reshuffleTime && table.hasSets()) { // reshuffle at once if there is no set to find
+            Event event = sleepUntilWokenOrTimeout();
+            if (event != null) {
+                batch.add(event);
+                events.drainTo(batch); // handle every pending event before sleeping again
+                handle(batch);
+                batch.clear();
             }
-
+            if (env.clock.millis() >= nextTickTime) tick();
         }
     }
 
-    public ReentrantLock getLock() {
-        return checklock;
+    /**
+     * Handles a batch of events on the dealer thread: all the claims are examined together.
+     */
+    private void handle(List<Event> batch) {
+        List<Claim> claims = new ArrayList<>();
+        for (Event event : batch)
+            if (event.claim != null) claims.add(event.claim);
+        if (!claims.isEmpty() && !terminate) examine(claims);
     }
 
-    public synchronized void HandleTest(Player p) {
-        SetsToTest.add(p);
-        notifyAll();
+    /**
+     * Updates the countdown display and schedules its next update.
+     */
+    private void tick() {
+        boolean warn = reshuffleTime - env.clock.millis() < env.config.turnTimeoutWarningMillis;
+        updateTimerDisplay(warn);
+        scheduleTick();
     }
 
-    private void examine(Player p) {
-        int[] cards = new int[env.config.featureSize]; //featureSize is 3
-        boolean isSet = false;
-        if (p.gettokensplaced().size() == env.config.featureSize) {
-            for (int i = 0; i < cards.length; i++) {
-                cards[i] = table.slotToCard[(int) p.gettokensplaced().get(i)];
-            }
+    /**
+     * Starts a new countdown and schedules its first tick.
+     */
+    private void resetTimer() {
+        reshuffleTime = env.clock.millis() + env.config.turnTimeoutMillis;
+        env.ui.setCountdown(env.config.turnTimeoutMillis, false);
+        scheduleTick();
+    }
 
-            isSet = env.util.testSet(cards);
-        }
-        if (isSet) {
-            removeCardsFromTable(cards); //removing the three cards of the set
-            placeCardsOnTable();
-            p.Wakeup(env.config.pointFreezeMillis);
+    /**
+     * Schedules the next countdown tick: when the displayed second changes, or every 10ms in the warning period.
+     */
+    private void scheduleTick() {
+        long now = env.clock.millis();
+        long remaining = reshuffleTime - now;
+        long delay = remaining % 1000 == 0 ? 1000 : remaining % 1000;
+        if (remaining < env.config.turnTimeoutWarningMillis) delay = 10;
+        else delay = Math.min(delay, remaining - env.config.turnTimeoutWarningMillis);
+        nextTickTime = now + Math.max(1, delay);
+    }
 
-        } else {
-            p.Wakeup(env.config.penaltyFreezeMillis);
-        }
+    /**
+     * Submits a claimed set to be examined by the dealer (called by the player threads, never blocks).
+     *
+     * @param claim - the claim.
+     */
+    public void submit(Claim claim) {
+        events.offer(new Event(claim));
+    }
 
-        if (isSet) {
-            reshuffleTime = System.currentTimeMillis() + env.config.turnTimeoutMillis;
-            env.ui.setCountdown(env.config.turnTimeoutMillis, false);
+    /**
+     * Examines a batch of claimed sets in arrival order. A claim made on cards that are no longer on the table, or
+     * that uses a card of an earlier legal set in the batch, is discarded (without a penalty), and the cards of all
+     * the legal sets are replaced in a single pass.
+     *
+     * @param claims - the claims, in arrival order.
+     */
+    private void examine(List<Claim> claims) {
+        boolean[] taken = new boolean[table.slots()]; // slots of the legal sets found so far
+        int[] removed = new int[claims.size() * env.config.featureSize];
+        int removedCount = 0;
+        Claim.Verdict[] verdicts = new Claim.Verdict[claims.size()];
+
+        for (int c = 0; c < claims.size(); c++) {
+            Claim claim = claims.get(c);
+            boolean conflict = claim.isStale(table.board());
+            for (int i = 0; i < claim.size() && !conflict; i++)
+                conflict = taken[claim.slot(i)];
+            if (conflict) {
+                verdicts[c] = Claim.Verdict.DISCARDED; // the player no longer has a set to check
+            } else if (claim.size() == env.config.featureSize && env.util.testSet(claim.cards())) {
+                for (int i = 0; i < claim.size(); i++) {
+                    taken[claim.slot(i)] = true;
+                    removed[removedCount++] = claim.card(i);
+                }
+                verdicts[c] = Claim.Verdict.POINT;
+            } else {
+                verdicts[c] = Claim.Verdict.PENALTY;
+            }
         }
-        synchronized (p) { p.notifyAll();}
 
+        if (removedCount > 0) {
+            removeCardsFromTable(Arrays.copyOf(removed, removedCount)); //removing the cards of all the sets
+            placeCardsOnTable();
+            resetTimer();
+        }
+        for (int c = 0; c < claims.size(); c++)
+            claims.get(c).complete(verdicts[c]);
     }
 
     /**
@@ -143,6 +237,7 @@ public class Dealer implements Runnable {
      */
     public void terminate() {
         terminate = true;
+        events.offer(Event.TERMINATE);
         for (int i = players.length - 1; i >= 0; i--) {
             players[i].terminate();
         }
@@ -154,116 +249,110 @@ public class Dealer implements Runnable {
      * @return true iff the game should be finished.
      */
     private boolean shouldFinish() {
-        return terminate || env.util.findSets(deck, 1).size() == 0;
+        return terminate || !setsInPlay.hasSets();
     }
 
     /**
-     * Checks cards should be removed from the table and removes them.
+     * Removes the given cards from the table (and from the game), along with the tokens placed on them.
      */
     private void removeCardsFromTable(int[] cards) {
-        for (int i = 0; i < cards.length; i++) {
-            int slot = table.cardToSlot[cards[i]];
-            table.removeCard(slot);
-            env.ui.removeTokens(slot);
+        for (int card : cards) {
+            int slot = table.slotOf(card);
+            boolean tokens = table.hasTokens(slot);
+            table.removeCard(slot); // clears the tokens too
+            setsInPlay.remove(card);
+            if (tokens) env.ui.removeTokens(slot);
             env.ui.removeCard(slot);
-            for (Player player : SetsToTest) { // if the player sent a set to test with this card, we remove the set from the queue
-                if (player.gettokensplaced().contains(slot)) {
-                    synchronized (player) { player.notifyAll(); } // waking up the player because he no longer has a set to check
-                    SetsToTest.remove(player);
-                    player.setBlock(false);
-                }
-            }
-            for (int j = 0; j < players.length; j++) {
-                if (players[j].getInputPresses().contains(slot))
-                    players[j].getInputPresses().remove(slot);
-                if (players[j].gettokensplaced().contains(slot))
-                    players[j].gettokensplaced().remove((Object) slot);
+        }
+        discardClaims();
+    }
 
+    /**
+     * Drops the pending claims made on cards that are no longer on the table and releases the players waiting for
+     * them.
+     */
+    private void discardClaims() {
+        for (Iterator<Event> it = events.iterator(); it.hasNext(); ) {
+            Claim claim = it.next().claim;
+            if (claim != null && claim.isStale(table.board())) {
+                it.remove();
+                claim.complete(Claim.Verdict.DISCARDED);
             }
         }
-//        if (shouldFinish()) terminate();
     }
 
     /**
      * Check if any cards can be removed from the deck and placed on the table.
      */
     private void placeCardsOnTable() {
-        for (int i = 0; i < table.slotToCard.length; i++) {
-            if (table.slotToCard[i] == null && !(deck.isEmpty())) {
-                Random rand = new Random();
-                int rnd = rand.nextInt(deck.size());
-                table.placeCard(deck.get(rnd), i);
-                env.ui.placeCard(deck.get(rnd), i);
-                deck.remove(rnd);
-            }
-
+        for (int slot = table.nextEmptySlot(0); slot != Table.NONE && deckSize > 0; slot = table.nextEmptySlot(slot + 1)) {
+            int card = drawCard();
+            table.placeCard(card, slot);
+            env.ui.placeCard(card, slot);
         }
     }
 
     /**
-     * Sleep for a fixed amount of time or until the thread is awakened for some purpose.
+     * Removes a random card from the deck (swapping the last card into its place).
+     *
+     * @return - the card id drawn.
      */
-    private void sleepUntilWokenOrTimeout() {
-        int towait = 1000;
-        if (reshuffleTime - System.currentTimeMillis() < env.config.turnTimeoutMillis)
-            towait = 10;
-        try {
-            synchronized(this) { wait(towait);}
-        } catch (InterruptedException e) {}
+    private int drawCard() {
+        int index = random.nextInt(deckSize);
+        int card = deck[index];
+        deck[index] = deck[--deckSize];
+        return card;
+    }
+
+    /**
+     * Sleep until an event arrives, the countdown display needs an update or the reshuffle deadline passes.
+     *
+     * @return - the next event, or null if a deadline passed first.
+     */
+    private Event sleepUntilWokenOrTimeout() {
+        return events.pollUntil(Math.min(nextTickTime, reshuffleTime), env.clock);
     }
 
     /**
      * Reset and/or update the countdown and the countdown display.
      */
     private void updateTimerDisplay(boolean reset) {
-        env.ui.setCountdown(reshuffleTime - System.currentTimeMillis(), reset);
+        env.ui.setCountdown(Math.max(0, reshuffleTime - env.clock.millis()), reset);
     }
 
     /**
      * Returns all the cards from the table to the deck.
      */
     private void removeAllCardsFromTable() {
-        for (int i = 0; i < table.slotToCard.length; i++) {
-            if (table.slotToCard[i] != null) {
-                int card = table.slotToCard[i];
-                table.removeCard(i);
-                deck.add(card);
-                env.ui.removeTokens(i);
-                env.ui.removeCard(i);
-                for (int j = 0; j < players.length; j++) {
-                    if (players[j].getInputPresses().contains(i))
-                        players[j].getInputPresses().remove(i);
-                    if (players[j].gettokensplaced().contains((Object) i))
-                        players[j].gettokensplaced().remove((Object) i);
-                }
-            }
-
+        for (int slot = table.nextCard(0); slot != Table.NONE; slot = table.nextCard(slot + 1)) {
+            deck[deckSize++] = table.cardAt(slot);
+            boolean tokens = table.hasTokens(slot);
+            table.removeCard(slot);
+            if (tokens) env.ui.removeTokens(slot);
+            env.ui.removeCard(slot);
         }
+        discardClaims(); // pending claims refer to cards that are no longer on the table
+        for (Player player : players)
+            player.clearInputPresses();
     }
 
         /**
-         * Check who is/are the winner/s and displays them.
+         * Check who is/are the winner/s and displays them, in a single pass over the players.
          */
         private void announceWinners () {
             int max = 0;
-            int count = 0;
-            int curr = 0; //the index to put the element in the playersid array
-            for (int i = 0; i < players.length; i++) {
-                if (max < players[i].getScore()) {
+            int count = 0; // the number of players with the max score, at the start of the winners array
+            int[] winners = new int[players.length];
+            for (Player player : players) {
+                int score = player.getScore();
+                if (score > max) {
+                    max = score;
                     count = 0;
-                    max = players[i].getScore();
-                }
-                if (max == players[i].getScore())
-                    count++;
-            }
-            int[] playersId = new int[count];
-            for (int i = 0; i < players.length; i++) {
-                if (players[i].getScore() == max) {
-                    playersId[curr] = players[i].id;
-                    curr++;
                 }
+                if (score == max)
+                    winners[count++] = player.id;
             }
-            env.ui.announceWinner(playersId);
+            env.ui.announceWinner(Arrays.copyOf(winners, count));
         }
 }
 
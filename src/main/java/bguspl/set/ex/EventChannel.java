@@ -0,0 +1,108 @@
+package bguspl.set.ex;
+
+import bguspl.set.Clock;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free multi-producer single-consumer channel. Producers never block or spin: they append to a lock-free
+ * queue and unpark the consumer if it is waiting. Only a single thread may consume (poll/drain) the channel.
+ *
+ * @param <E> - the type of the elements.
+ */
+public class EventChannel<E> implements Iterable<E> {
+
+    private final ConcurrentLinkedQueue<E> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The consumer thread while it is (about to be) parked waiting for an element, null otherwise.
+     */
+    private volatile Thread consumer;
+
+    /**
+     * Adds an element to the channel and wakes up the consumer (called by any thread).
+     *
+     * @param element - the element to add.
+     */
+    public void offer(E element) {
+        queue.offer(element);
+        Thread waiting = consumer;
+        if (waiting != null) LockSupport.unpark(waiting);
+    }
+
+    /**
+     * Removes the first element, waiting for one if necessary (called by the consumer thread only).
+     *
+     * @param timeout - the maximum time to wait.
+     * @param unit    - the time unit of the timeout.
+     * @return - the first element, or null if the timeout passed (or the consumer was interrupted) first.
+     */
+    public E poll(long timeout, TimeUnit unit) {
+        E element = queue.poll();
+        if (element != null || timeout <= 0) return element;
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        consumer = Thread.currentThread();
+        try {
+            // the queue is checked again after publishing the consumer, so an offer can't be missed
+            while ((element = queue.poll()) == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || Thread.interrupted()) return null;
+                LockSupport.parkNanos(this, remaining);
+            }
+            return element;
+        } finally {
+            consumer = null;
+        }
+    }
+
+    /**
+     * Removes the first element, waiting for one until the clock reaches the deadline (called by the consumer thread
+     * only).
+     *
+     * @param deadline - the time (in clock milliseconds) to wait until.
+     * @param clock    - the clock the deadline is measured by.
+     * @return - the first element, or null if the deadline passed (or the consumer was interrupted) first.
+     */
+    public E pollUntil(long deadline, Clock clock) {
+        E element = queue.poll();
+        if (element != null) return element;
+
+        consumer = Thread.currentThread();
+        try {
+            // the queue is checked again after publishing the consumer, so an offer can't be missed
+            while ((element = queue.poll()) == null) {
+                if (clock.millis() >= deadline || Thread.interrupted()) return null;
+                clock.parkUntil(this, deadline);
+            }
+            return element;
+        } finally {
+            consumer = null;
+        }
+    }
+
+    /**
+     * Removes all the available elements (called by the consumer thread only).
+     *
+     * @param collection - the collection to add the elements to, in arrival order.
+     * @return - the number of elements removed.
+     */
+    public int drainTo(Collection<? super E> collection) {
+        int count = 0;
+        for (E element; (element = queue.poll()) != null; ++count)
+            collection.add(element);
+        return count;
+    }
+
+    /**
+     * @return - a weakly consistent iterator over the pending elements (supports remove).
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return queue.iterator();
+    }
+}
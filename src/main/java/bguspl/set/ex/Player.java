@@ -1,11 +1,13 @@
 package bguspl.set.ex;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Queue;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
@@ -37,7 +39,7 @@ public class Player implements Runnable {
     /**
      * The thread representing the current player.
      */
-    private Thread playerThread;
+    private volatile Thread playerThread;
 
     /**
      * The thread of the AI (computer) player (an additional thread used to generate key presses).
@@ -54,8 +56,6 @@ public class Player implements Runnable {
      */
     private volatile boolean terminate;
 
-    private final ReentrantLock checklock;
-
     /**
      * The current score of the player.
      */
@@ -63,18 +63,40 @@ public class Player implements Runnable {
 
     private Dealer dealer;
 
-    private final List<Integer> tokensplaced;
+    /**
+     * The version of the table when each of the player's tokens was placed (indexed by slot; the tokens themselves
+     * are kept by the table).
+     */
+    private final long[] tokenVersions;
 
-    private boolean keyBlock;
+    /**
+     * True iff the player's key presses are ignored (while its claim is examined or it is frozen).
+     */
+    private volatile boolean keyBlock;
 
 
     private final BlockingQueue<Integer> inputpresses;
 
-    private long sleeptime;
+    /**
+     * The claim the player is waiting on (null if none).
+     */
+    private volatile Claim pendingClaim;
 
-    private final Object ailock = new Object();
+    /**
+     * Guards the waits for key presses. A lock rather than a monitor, so a virtual thread waiting on it is unmounted
+     * from its carrier thread instead of pinning it.
+     */
+    private final ReentrantLock keyLock = new ReentrantLock();
 
-    private final Object PressLock = new Object();
+    /**
+     * Signalled when a key is pressed (the player thread waits on it).
+     */
+    private final Condition pressed = keyLock.newCondition();
+
+    /**
+     * Signalled when the player can take another key press (the computer player thread waits on it).
+     */
+    private final Condition pressable = keyLock.newCondition();
 
     /**
      * The class constructor.
@@ -91,10 +113,9 @@ public class Player implements Runnable {
         this.id = id;
         this.human = human;
         this.dealer = dealer;
-        this.tokensplaced = new LinkedList<>();
+        this.tokenVersions = new long[env.config.tableSize];
         this.keyBlock = true;
         inputpresses = new LinkedBlockingQueue<>(env.config.featureSize);
-        this.checklock = dealer.getLock();
     }
 
     /**
@@ -107,15 +128,16 @@ public class Player implements Runnable {
         env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + "starting.");
         if (!human) createArtificialIntelligence();
         while (!terminate) {
+            keyLock.lock();
             try {
-                synchronized (PressLock) {PressLock.wait();} // player is in wait while no key pressed
-            }catch (InterruptedException e){}
-            if (sleeptime == env.config.penaltyFreezeMillis) {
-                penalty();
-            } else if (sleeptime == env.config.pointFreezeMillis)
-                point();
-            if (!inputpresses.isEmpty()) {
-                int slot = inputpresses.poll();
+                while (!terminate && inputpresses.isEmpty()) pressed.await(); // player is in wait while no key pressed
+            } catch (InterruptedException e) {
+            } finally {
+                keyLock.unlock();
+            }
+            Integer slot = inputpresses.poll();
+            if (slot != null) {
+                signalAll(pressable); // the queue is not full anymore
                 handleKeyPress(slot);
             }
         }
@@ -129,43 +151,47 @@ public class Player implements Runnable {
 
     /**
      * Creates an additional thread for an AI (computer) player. The main loop of this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it is not full.
+     * key presses. If the queue of key presses is full or the player's keys are blocked, the thread waits until it can
+     * press again.
      */
     private void createArtificialIntelligence() {
         // note: this is a very very smart AI (!)
-        aiThread = new Thread(() -> {
+        aiThread = env.threads.newThread(() -> {
             env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " starting.");
+            SplittableRandom rand = env.random.player(id);
             while (!terminate) {
-                Random rand = new Random();
-                int rndslot = rand.nextInt(table.slotToCard.length);
+                int rndslot = rand.nextInt(env.config.tableSize);
                 keyPressed(rndslot);
+                keyLock.lock();
                 try {
-                    if(!terminate) {
-                        synchronized (ailock) {
-                            ailock.wait(1);
-                        }
-                    }
+                    while (!terminate && (keyBlock || inputpresses.remainingCapacity() == 0))
+                        pressable.await();
+                    if (!terminate && env.config.computerPlayerDelayMillis > 0)
+                        pressable.await(env.config.computerPlayerDelayMillis, TimeUnit.MILLISECONDS);
                 } catch (InterruptedException ignored) {
 
+                } finally {
+                    keyLock.unlock();
                 }
             }
             env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
-        }, "computer-" + id);
+        });
+        aiThread.setName("computer-" + id);
         aiThread.start();
     }
 
-    public List gettokensplaced() {
-        return tokensplaced;
-    }
-
 
     /**
      * Called when the game should be terminated due to an external event.
      */
     public void terminate() {
         terminate = true;
-        synchronized (PressLock) { PressLock.notifyAll();} // waking up sleeping player waiting for press
-        synchronized (this) {notifyAll();} // waking up sleep player waiting for set check
+        Claim claim = pendingClaim;
+        if (claim != null) claim.complete(Claim.Verdict.DISCARDED); // releasing the player waiting for a verdict
+        signalAll(pressed); // waking up sleeping player waiting for press
+        Thread thread = playerThread;
+        if (thread != null) LockSupport.unpark(thread); // waking up the player if it is frozen
+        signalAll(pressable); // waking up the computer player waiting to press
 
     }
 
@@ -175,51 +201,70 @@ public class Player implements Runnable {
      * @param slot - the slot corresponding to the key pressed.
      */
     public void keyPressed(int slot) {
-        if (inputpresses.size()<env.config.featureSize && !keyBlock && table.slotToCard[slot] != null) {
+        if (inputpresses.size()<env.config.featureSize && !keyBlock && table.board().hasCard(slot)) {
             inputpresses.add(slot);
         }
-        synchronized (PressLock) { PressLock.notifyAll(); } //waking up the player
+        signalAll(pressed); //waking up the player
     }
 
     private void handleKeyPress(int slot) {
-        if (tokensplaced.size() < env.config.featureSize) {
-            if (tokensplaced.contains(slot)) {
-                tokensplaced.remove((Object) slot);
+        Board board = table.board();
+        int[] tokens = tokens(board);
+        if (table.removeToken(id, slot)) {
+            env.ui.removeToken(this.id, slot);
+        }
+        else if (tokens.length < env.config.featureSize && board.hasCard(slot)) { //checking that there is a card on this slot at the moment
+            tokenVersions[slot] = board.version;
+            table.placeToken(id, slot);
+            env.ui.placeToken(this.id, slot);
+            if (tokens.length + 1 == env.config.featureSize)
+                claimSet(board, tokens(board));
+        }
+    }
+
+    /**
+     * Collects the slots with the player's tokens, removing the tokens on slots that changed since they were placed
+     * (the dealer clears the tokens of a removed card, but a token may land on the slot right after).
+     *
+     * @param board - the current board.
+     * @return - the slots with the player's tokens, in slot order.
+     */
+    private int[] tokens(Board board) {
+        int[] slots = new int[env.config.featureSize];
+        int count = 0;
+        for (int slot = 0; slot < board.size(); slot++) {
+            if (!table.hasToken(id, slot)) continue;
+            if (!board.unchangedSince(slot, tokenVersions[slot])) { // the card was replaced
+                table.removeToken(id, slot);
                 env.ui.removeToken(this.id, slot);
-            }
-            else {
-                if(table.slotToCard[slot]!=null) { //checking that there is a card on this slot at the moment
-                    tokensplaced.add(slot); //adding to the queue of the player tokens
-                    env.ui.placeToken(this.id, slot);
-                    if (tokensplaced.size() == 3) {
-                        boolean ans = checklock.tryLock(); //trying to acquire the lock and returning if was able to or not
-                        keyBlock = true;
-                        boolean done=false;
-                        while (!done && !terminate) {
-                        if (ans) {
-                            try {
-                            dealer.HandleTest(this);
-                            }
-                            finally {
-                                checklock.unlock();
-                                try {
-                                    synchronized (this) { wait();}
-                                }catch (InterruptedException e){}
-                                done=true;
-                            }
-                            }
-                        else {
-                            ans = checklock.tryLock();
-                        }
-                        }
-                    }
-                }
+            } else if (count < slots.length) {
+                slots[count++] = slot;
             }
         }
-        else if (tokensplaced.size() == 3 && tokensplaced.contains(slot)) {
-            tokensplaced.remove((Object) slot);
-            env.ui.removeToken(this.id, slot);
-        }
+        return Arrays.copyOf(slots, count);
+    }
+
+    /**
+     * Submits a snapshot of the slots with the player's tokens and their cards to the dealer, parks until the
+     * dealer's verdict and acts on it.
+     *
+     * @param board - the board the cards are read from.
+     * @param slots - the slots with the player's tokens (none of them changed since its token was placed).
+     */
+    private void claimSet(Board board, int[] slots) {
+        keyBlock = true;
+        int[] cards = new int[slots.length];
+        for (int i = 0; i < slots.length; i++)
+            cards[i] = board.card(slots[i]);
+        Claim claim = new Claim(id, slots, cards, board.version, env.clock.millis());
+        pendingClaim = claim;
+        if (terminate) claim.complete(Claim.Verdict.DISCARDED); // terminate() may have missed the claim
+        dealer.submit(claim);
+        Claim.Verdict verdict = claim.await();
+        pendingClaim = null;
+        if (verdict == Claim.Verdict.POINT) point();
+        else if (verdict == Claim.Verdict.PENALTY) penalty();
+        else unblock(); // the player no longer has a set to check
     }
 
     /**
@@ -231,37 +276,53 @@ public class Player implements Runnable {
     public void point() {
         int ignored = table.countCards(); // this part is just for demonstration in the unit tests
         env.ui.setScore(id, ++score);
-        long freezetime = System.currentTimeMillis() + env.config.pointFreezeMillis;
-        while (System.currentTimeMillis() <= freezetime) {
-            env.ui.setFreeze(id, freezetime - System.currentTimeMillis());
-            try {
-                synchronized(this) { wait(900);}
-            } catch (InterruptedException e) {}
-        }
-        sleeptime = 0;
-        keyBlock=false;
+        freeze(env.config.pointFreezeMillis);
+        unblock();
     }
 
     /**
      * Penalize a player and perform other related actions.
      */
     public void penalty() {
-        long freezetime = System.currentTimeMillis() + env.config.penaltyFreezeMillis;
-        while (System.currentTimeMillis() <= freezetime) {
-            env.ui.setFreeze(id, freezetime - System.currentTimeMillis());
-            try {
-                synchronized (this) {
-                    wait(900);
-                }
-            } catch (InterruptedException e) {}
-        }
-            sleeptime = 0;
-            keyBlock = false;
+        freeze(env.config.penaltyFreezeMillis);
+        unblock();
+    }
+
+    /**
+     * Freezes the player, updating the freeze display about once a second (returns at once for a zero freeze).
+     *
+     * @param millis - the freeze time in milliseconds.
+     */
+    private void freeze(long millis) {
+        long now = env.clock.millis();
+        long freezetime = now + millis;
+        while (now < freezetime && !terminate) {
+            env.ui.setFreeze(id, freezetime - now);
+            env.clock.parkUntil(this, Math.min(freezetime, now + 900));
+            now = env.clock.millis();
         }
-    public void Wakeup(long sleeptime) {
-        this.sleeptime = sleeptime;
+        if (millis > 0) env.ui.setFreeze(id, 0);
     }
 
+    /**
+     * Lets the player's key presses in again and wakes up the computer player waiting to press.
+     */
+    private void unblock() {
+        keyBlock = false;
+        signalAll(pressable);
+    }
+
+    /**
+     * Wakes up the threads waiting on a condition of the key lock.
+     */
+    private void signalAll(Condition condition) {
+        keyLock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            keyLock.unlock();
+        }
+    }
 
     public int getScore() {
         return score;
@@ -269,16 +330,21 @@ public class Player implements Runnable {
     public Queue getInputPresses () {
         return inputpresses;
     }
+
+    /**
+     * Drops the pending key presses and wakes up the computer player waiting for room in the queue.
+     */
+    public void clearInputPresses() {
+        inputpresses.clear();
+        signalAll(pressable);
+    }
     public void setBlock(boolean toblock) {
-        keyBlock = toblock;
+        if (toblock) keyBlock = true;
+        else unblock();
     }
 
     public Thread getPlayerThread() {
         return playerThread;
     }
 
-    public Object getLock(){
-        return PressLock;
-    }
-
 }
\ No newline at end of file
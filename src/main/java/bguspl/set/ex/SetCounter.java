@@ -0,0 +1,111 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * This class counts the legal sets that can still be formed from the cards in play (i.e. cards in the deck or on
+ * the table), so checking whether the game is over does not require searching the remaining cards.
+ *
+ * @inv count() == the number of legal sets formed by cards in play
+ * @inv count(card) == the number of those sets containing the card
+ */
+public class SetCounter {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * The cards in play (the first size entries) and the position of each card in that array (-1 if out of play).
+     */
+    private final int[] cards;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * The number of legal sets each card is part of (indexed by card id).
+     */
+    private final int[] setsPerCard;
+
+    /**
+     * The total number of legal sets.
+     */
+    private long sets;
+
+    /**
+     * Starts counting with the whole deck in play.
+     *
+     * @param env - the game environment object.
+     */
+    public SetCounter(Env env) {
+        this.env = env;
+        size = env.config.deckSize;
+        cards = IntStream.range(0, size).toArray();
+        positions = IntStream.range(0, size).toArray();
+        setsPerCard = new int[size];
+
+        for (int[] set : env.util.findSets(cards, Integer.MAX_VALUE)) {
+            ++sets;
+            for (int card : set)
+                ++setsPerCard[card];
+        }
+    }
+
+    /**
+     * Takes a card out of play and forgets the sets it was part of.
+     *
+     * @param card - the card id.
+     *
+     * @post - the card is out of play and count() no longer includes sets containing it.
+     */
+    public void remove(int card) {
+        int position = positions[card];
+        if (position < 0) return;
+
+        // swap the last card in play into the removed card position
+        cards[position] = cards[--size];
+        positions[cards[position]] = position;
+        positions[card] = -1;
+
+        if (setsPerCard[card] == 0) return;
+        for (int[] set : env.util.findSetsContaining(card, Arrays.copyOf(cards, size), Integer.MAX_VALUE)) {
+            --sets;
+            for (int other : set)
+                --setsPerCard[other];
+        }
+    }
+
+    /**
+     * @return - true iff at least one legal set can be formed from the cards in play.
+     */
+    public boolean hasSets() {
+        return sets > 0;
+    }
+
+    /**
+     * @return - the number of legal sets that can be formed from the cards in play.
+     */
+    public long count() {
+        return sets;
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - the number of legal sets the card is part of (0 if it is out of play).
+     */
+    public int count(int card) {
+        return setsPerCard[card];
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - true iff the card is still in play.
+     */
+    public boolean inPlay(int card) {
+        return positions[card] >= 0;
+    }
+}
@@ -3,48 +3,90 @@ package bguspl.set.ex;
 import bguspl.set.Env;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
- * This class contains the data that is visible to the player.
+ * This class contains the data that is visible to the player. The dealer thread changes the table; the other threads
+ * read the latest published board.
  *
- * @inv slotToCard[x] == y iff cardToSlot[y] == x
+ * @inv cardAt(x) == y iff slotOf(y) == x, for y != NONE
+ * @inv countCards() == the number of slots x with hasCard(x)
+ * @inv board().card(x) == cardAt(x) between changes
  */
 public class Table {
 
+    /**
+     * Marks an empty slot, or a card that is not on the table.
+     */
+    public static final int NONE = -1;
+
     /**
      * The game environment object.
      */
     private final Env env;
 
     /**
-     * Mapping between a slot and the card placed in it (null if none).
+     * Mapping between a slot and the card placed in it (NONE if none).
+     */
+    private final int[] slotToCard; // card per slot (if any)
+
+    /**
+     * Mapping between a card and the slot it is in (NONE if none).
+     */
+    private final int[] cardToSlot; // slot per card (if any)
+
+    /**
+     * The occupied slots (bit x of word x / 64 is set iff there is a card in slot x).
+     */
+    private final long[] occupied;
+
+    /**
+     * The number of cards on the table.
+     */
+    private int cardCount;
+
+    /**
+     * The players' tokens: a bitmask of player ids per slot (bit p of word slot * tokenWords + p / 64 is set iff
+     * player p has a token on the slot). The player threads change it concurrently, hence the atomic words.
      */
-    protected final Integer[] slotToCard; // card per slot (if any)
+    private final AtomicLongArray tokens;
 
     /**
-     * Mapping between a card and the slot it is in (null if none).
+     * The number of words in the token bitmask of each slot (one for up to 64 players).
      */
-    protected final Integer[] cardToSlot; // slot per card (if any)
+    private final int tokenWords;
 
-//    protected ArrayList<Player>[] tokensonslot;
+    /**
+     * The legal sets of cards currently on the table (card ids sorted), maintained by placeCard and removeCard.
+     */
+    private final List<int[]> sets = new ArrayList<>();
+
+    /**
+     * The latest board published to the readers (replaced after every card placed or removed).
+     */
+    private final AtomicReference<Board> board;
 
     /**
      * Constructor for testing.
      *
-     * @param env        - the game environment objects.
-     * @param slotToCard - mapping between a slot and the card placed in it (null if none).
-     * @param cardToSlot - mapping between a card and the slot it is in (null if none).
+     * @param env   - the game environment objects.
+     * @param cards - the card placed in each slot (NONE if none).
      */
-    public Table(Env env, Integer[] slotToCard, Integer[] cardToSlot) {
+    public Table(Env env, int[] cards) {
 
         this.env = env;
-        this.slotToCard = slotToCard;
-        this.cardToSlot = cardToSlot;
-//        this.tokensonslot = new ArrayList[slotToCard.length];
-//        for (int i = 0; i < slotToCard.length; i++) {
-//            tokensonslot[i] = new ArrayList<Player>();
-//        }
+        this.slotToCard = new int[cards.length];
+        this.cardToSlot = new int[env.config.deckSize];
+        this.occupied = new long[(cards.length + 63) / 64];
+        this.tokenWords = Math.max(1, (env.config.players + 63) / 64);
+        this.tokens = new AtomicLongArray(cards.length * tokenWords);
+        Arrays.fill(slotToCard, NONE);
+        Arrays.fill(cardToSlot, NONE);
+        this.board = new AtomicReference<>(new Board(cards.length));
+        for (int slot = 0; slot < cards.length; slot++)
+            if (cards[slot] != NONE) place(cards[slot], slot);
     }
 
     /**
@@ -54,33 +96,149 @@ public class Table {
      */
     public Table(Env env) {
 
-        this(env, new Integer[env.config.tableSize], new Integer[env.config.deckSize]);
+        this(env, empty(env.config.tableSize));
+    }
+
+    private static int[] empty(int slots) {
+        int[] cards = new int[slots];
+        Arrays.fill(cards, NONE);
+        return cards;
+    }
+
+    /**
+     * @return - the number of slots on the table.
+     */
+    public int slots() {
+        return slotToCard.length;
+    }
+
+    /**
+     * @param slot - a slot number.
+     * @return - the card in the slot (NONE if none).
+     */
+    public int cardAt(int slot) {
+        return slotToCard[slot];
+    }
+
+    /**
+     * @param card - a card id.
+     * @return - the slot the card is in (NONE if it is not on the table).
+     */
+    public int slotOf(int card) {
+        return cardToSlot[card];
+    }
+
+    /**
+     * @param slot - a slot number.
+     * @return - true iff there is a card in the slot.
+     */
+    public boolean hasCard(int slot) {
+        return (occupied[slot >> 6] & 1L << slot) != 0;
+    }
+
+    /**
+     * @param from - the slot to start from.
+     * @return - the first slot with a card, starting from the given slot (NONE if there is none).
+     */
+    public int nextCard(int from) {
+        return next(from, 0);
+    }
+
+    /**
+     * @param from - the slot to start from.
+     * @return - the first empty slot, starting from the given slot (NONE if there is none).
+     */
+    public int nextEmptySlot(int from) {
+        return next(from, -1L);
+    }
+
+    /**
+     * Scans the occupied bitmask (flipped by the given mask) for the next set bit.
+     */
+    private int next(int from, long flip) {
+        for (int word = from >> 6; word < occupied.length; word++) {
+            long bits = (occupied[word] ^ flip) & (-1L << (word == from >> 6 ? from : 0));
+            if (bits != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return slot < slotToCard.length ? slot : NONE;
+            }
+        }
+        return NONE;
     }
 
     /**
      * This method prints all possible legal sets of cards that are currently on the table.
      */
     public void hints() {
-        List<Integer> deck = Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
-        env.util.findSets(deck, Integer.MAX_VALUE).forEach(set -> {
+        sets.forEach(set -> {
             StringBuilder sb = new StringBuilder().append("Hint: Set found: ");
-            List<Integer> slots = Arrays.stream(set).mapToObj(card -> cardToSlot[card]).sorted().collect(Collectors.toList());
+            List<Integer> slots = Arrays.stream(set).map(card -> cardToSlot[card]).sorted().boxed().collect(Collectors.toList());
             int[][] features = env.util.cardsToFeatures(set);
             System.out.println(sb.append("slots: ").append(slots).append(" features: ").append(Arrays.deepToString(features)));
         });
     }
 
+    /**
+     * @return - true iff there is at least one legal set on the table.
+     */
+    public boolean hasSets() {
+        return !sets.isEmpty();
+    }
+
+    /**
+     * @return - the number of legal sets on the table.
+     */
+    public int countSets() {
+        return sets.size();
+    }
+
+    /**
+     * Adds the sets the card forms with the other cards on the table to the set index.
+     *
+     * @param card - a card on the table.
+     */
+    private void indexSets(int card) {
+        int[] others = new int[cardCount];
+        int count = 0;
+        for (int slot = nextCard(0); slot != NONE; slot = nextCard(slot + 1))
+            if (slotToCard[slot] != card) others[count++] = slotToCard[slot];
+        others = Arrays.copyOf(others, count);
+        sets.addAll(env.util.findSetsContaining(card, others, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Removes the sets containing the card from the set index.
+     *
+     * @param card - a card that is removed from the table.
+     */
+    private void unindexSets(int card) {
+        sets.removeIf(set -> Arrays.stream(set).anyMatch(other -> other == card));
+    }
+
+    /**
+     * Returns the latest board, without blocking. The board never changes, so the caller sees a consistent table
+     * for as long as it holds on to it.
+     *
+     * @return - the latest board.
+     */
+    public Board board() {
+        return board.get();
+    }
+
+    /**
+     * Publishes the next version of the board, with the slot changed (called by the dealer thread only).
+     */
+    private void publish(int slot, int card) {
+        board.set(board.get().with(slot, card));
+    }
+
     /**
      * Count the number of cards currently on the table.
      *
      * @return - the number of cards on the table.
      */
     public int countCards() {
-        int cards = 0;
-        for (Integer card : slotToCard)
-            if (card != null)
-                ++cards;
-        return cards;
+        return cardCount;
     }
 
     /**
@@ -91,14 +249,33 @@ public class Table {
      * @post - the card placed is on the table, in the assigned slot.
      */
     public void placeCard(int card, int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
+        place(card, slot);
+    }
 
+    /**
+     * Puts the card in the slot (replacing the card that was there, if any) and publishes the change.
+     */
+    private void place(int card, int slot) {
+        if (hasCard(slot)) clear(slot);
         cardToSlot[card] = slot;
         slotToCard[slot] = card;
+        occupied[slot >> 6] |= 1L << slot;
+        cardCount++;
+        publish(slot, card);
+        indexSets(card);
+    }
 
-        // TODO implement
+    /**
+     * Empties the slot (without publishing the change).
+     */
+    private void clear(int slot) {
+        int card = slotToCard[slot];
+        slotToCard[slot] = NONE;
+        cardToSlot[card] = NONE;
+        occupied[slot >> 6] &= ~(1L << slot);
+        cardCount--;
+        clearTokens(slot);
+        unindexSets(card);
     }
 
     /**
@@ -106,14 +283,9 @@ public class Table {
      * @param slot - the slot from which to remove the card.
      */
     public void removeCard(int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
-
-        int card = slotToCard[slot];
-        slotToCard[slot] = null;
-        cardToSlot[card] = null;
-        //return tokens
+        if (!hasCard(slot)) return;
+        clear(slot);
+        publish(slot, NONE);
     }
 
     /**
@@ -122,7 +294,12 @@ public class Table {
      * @param slot   - the slot on which to place the token.
      */
     public void placeToken(int player, int slot) {
-        // TODO implement
+        int word = slot * tokenWords + (player >> 6);
+        long bit = 1L << player;
+        long mask;
+        do {
+            mask = tokens.get(word);
+        } while ((mask & bit) == 0 && !tokens.compareAndSet(word, mask, mask | bit));
     }
 
     /**
@@ -132,7 +309,52 @@ public class Table {
      * @return       - true iff a token was successfully removed.
      */
     public boolean removeToken(int player, int slot) {
-        // TODO implement
+        int word = slot * tokenWords + (player >> 6);
+        long bit = 1L << player;
+        long mask;
+        do {
+            mask = tokens.get(word);
+            if ((mask & bit) == 0) return false;
+        } while (!tokens.compareAndSet(word, mask, mask & ~bit));
+        return true;
+    }
+
+    /**
+     * @param player - a player id.
+     * @param slot   - a slot number.
+     * @return - true iff the player has a token on the slot.
+     */
+    public boolean hasToken(int player, int slot) {
+        return (tokens.get(slot * tokenWords + (player >> 6)) & 1L << player) != 0;
+    }
+
+    /**
+     * @param slot - a slot number.
+     * @return - true iff any player has a token on the slot.
+     */
+    public boolean hasTokens(int slot) {
+        for (int word = slot * tokenWords; word < (slot + 1) * tokenWords; word++)
+            if (tokens.get(word) != 0) return true;
         return false;
     }
+
+    /**
+     * @param slot - a slot number.
+     * @return - the players with a token on the slot (bit p of word p / 64 is set iff player p has a token).
+     */
+    public long[] tokens(int slot) {
+        long[] mask = new long[tokenWords];
+        for (int i = 0; i < tokenWords; i++)
+            mask[i] = tokens.get(slot * tokenWords + i);
+        return mask;
+    }
+
+    /**
+     * Removes all the tokens from a grid slot (called when its card is removed).
+     * @param slot - the slot from which to remove the tokens.
+     */
+    private void clearTokens(int slot) {
+        for (int word = slot * tokenWords; word < (slot + 1) * tokenWords; word++)
+            tokens.set(word, 0);
+    }
 }
@@ -0,0 +1,47 @@
+package bguspl.set;
+
+import javax.swing.ImageIcon;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Logger;
+
+/**
+ * Measures what the window waits for before its first frame: decoding every card image through ImageIcon (as the game
+ * panel did) against creating the CardImages (which decode the empty card at once, and the deck in the background).
+ * Not a unit test, run it manually (after mvn test-compile):
+ * java -Djava.awt.headless=true -cp target/classes:target/test-classes bguspl.set.CardImagesBenchmark
+ */
+public class CardImagesBenchmark {
+
+    private static final String EMPTY_CARD = "cards/empty_card.png";
+
+    public static void main(String[] args) throws InterruptedException {
+        Properties properties = new Properties();
+        properties.put("LogLevel", "OFF");
+        Config config = new Config(Logger.getAnonymousLogger(), properties);
+        ClassLoader resources = CardImagesBenchmark.class.getClassLoader();
+        for (int i = 0; i < 20; i++) { // warm up both decoders, so neither pass pays for it
+            new ImageIcon(resources.getResource(EMPTY_CARD)).getImage();
+            CardImages.loadImageResource(EMPTY_CARD);
+        }
+
+        long start = System.nanoTime();
+        for (int card = 0; card < config.deckSize; card++)
+            new ImageIcon(resources.getResource("cards/"
+                    + UserInterfaceSwing.intInBaseToPaddedString(card, config.featureCount, config.featureSize) + ".png")).getImage();
+        long before = System.nanoTime() - start;
+
+        int prefetched = Math.min(config.deckSize, config.cardImageCacheSize);
+        CountDownLatch loaded = new CountDownLatch(prefetched);
+        start = System.nanoTime();
+        CardImages images = new CardImages(config, Logger.getAnonymousLogger(), new UtilImpl(config),
+                (image, card) -> loaded.countDown());
+        long ready = System.nanoTime() - start;
+        loaded.await();
+        long all = System.nanoTime() - start;
+        images.shutdown();
+
+        System.out.printf("%d cards: before the first frame, all images %.1f ms, now %.1f ms (%d images loaded in the "
+                + "background after %.1f ms)%n", config.deckSize, before / 1e6, ready / 1e6, prefetched, all / 1e6);
+    }
+}
@@ -0,0 +1,141 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CardImagesTest {
+
+    /**
+     * @param cacheSize - the card image cache size, also the table size (a single row).
+     */
+    private static Config config(int cacheSize) {
+        Properties properties = new Properties();
+        properties.put("Rows", "1");
+        properties.put("Columns", Integer.toString(cacheSize));
+        properties.put("CardImageCacheSize", Integer.toString(cacheSize));
+        return new Config(new MockLogger(), properties);
+    }
+
+    @Test
+    void config_KeepsTheTableInTheCache() {
+        Properties properties = new Properties();
+        properties.put("CardImageCacheSize", "2");
+        Config config = new Config(new MockLogger(), properties);
+        assertEquals(config.tableSize, config.cardImageCacheSize);
+    }
+
+    @Test
+    void get_LoadsInTheBackground() throws InterruptedException {
+        BlockingQueue<Integer> loaded = new LinkedBlockingQueue<>();
+        CardImages images = new CardImages(config(1), new MockLogger(), null, (image, card) -> loaded.add(card));
+        assertEquals(0, loaded.poll(10, TimeUnit.SECONDS)); // prefetched
+        assertNull(images.get(5));
+        assertEquals(5, loaded.poll(10, TimeUnit.SECONDS));
+        images.shutdown();
+    }
+
+    @Test
+    void get_PassesTheImagesEvictedAtOnce() throws InterruptedException {
+        BlockingQueue<Image> loaded = new LinkedBlockingQueue<>();
+        CardImages images = new CardImages(config(1), new MockLogger(), null, (image, card) -> loaded.add(image));
+        assertNotNull(loaded.poll(10, TimeUnit.SECONDS)); // prefetched
+        assertNull(images.get(5));
+        assertNull(images.get(6)); // evicts 5 as soon as it is loaded, or the other way around
+        assertNotNull(loaded.poll(10, TimeUnit.SECONDS));
+        assertNotNull(loaded.poll(10, TimeUnit.SECONDS));
+        images.shutdown();
+    }
+
+    @Test
+    void get_PrefetchesAndKeepsTheCacheSize() throws InterruptedException {
+        BlockingQueue<Integer> loaded = new LinkedBlockingQueue<>();
+        CardImages images = new CardImages(config(2), new MockLogger(), null, (image, card) -> loaded.add(card));
+        for (int i = 0; i < 2; i++) // the first cards of the deck are prefetched
+            assertNotNull(loaded.poll(10, TimeUnit.SECONDS));
+        assertNotNull(images.get(0));
+        assertNotNull(images.get(1));
+
+        assertNull(images.get(2));
+        assertEquals(2, loaded.poll(10, TimeUnit.SECONDS));
+        assertNotNull(images.get(2));
+        assertNotNull(images.get(1));
+        assertNull(images.get(0)); // the least recently used image was evicted
+        images.shutdown();
+    }
+
+    @Test
+    void get_ScalesToTheCellSize() throws InterruptedException {
+        Properties properties = new Properties();
+        properties.put("Rows", "1");
+        properties.put("Columns", "1");
+        properties.put("CardImageCacheSize", "1");
+        properties.put("CellWidth", "100");
+        properties.put("CellHeight", "70");
+        BlockingQueue<Integer> loaded = new LinkedBlockingQueue<>();
+        CardImages images = new CardImages(new Config(new MockLogger(), properties), new MockLogger(), null,
+                (image, card) -> loaded.add(card));
+        assertEquals(100, images.emptyCard.getWidth(null));
+        assertEquals(70, images.emptyCard.getHeight(null));
+        assertEquals(0, loaded.poll(10, TimeUnit.SECONDS));
+        assertEquals(100, images.get(0).getWidth(null));
+        assertEquals(70, images.get(0).getHeight(null));
+        images.shutdown();
+    }
+
+    @Test
+    void get_DrawsTheCardsWithoutImages() throws InterruptedException {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "5");
+        properties.put("FeatureCount", "6");
+        properties.put("Rows", "1");
+        properties.put("Columns", "1");
+        properties.put("CardImageCacheSize", "1");
+        Config config = new Config(new MockLogger(), properties);
+        BlockingQueue<Integer> loaded = new LinkedBlockingQueue<>();
+        CardImages images = new CardImages(config, new MockLogger(), new UtilImpl(config), (image, card) -> loaded.add(card));
+        assertEquals(0, loaded.poll(10, TimeUnit.SECONDS)); // prefetched
+        for (int card = 97; card < config.deckSize; card += 97) { // drawn from the features (no image resources)
+            assertNull(images.get(card));
+            assertEquals(card, loaded.poll(10, TimeUnit.SECONDS));
+        }
+        images.shutdown();
+    }
+
+    @Test
+    void get_DrawsTheCardsNamedLikeClassicImages() throws InterruptedException {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "2");
+        properties.put("FeatureCount", "4");
+        properties.put("Rows", "1");
+        properties.put("Columns", "1");
+        properties.put("CardImageCacheSize", "1");
+        Config config = new Config(new MockLogger(), properties);
+        Util util = new UtilImpl(config);
+        BlockingQueue<Image> loaded = new LinkedBlockingQueue<>();
+        CardImages images = new CardImages(config, new MockLogger(), util, (image, card) -> {
+            if (card == 2) loaded.add(image);
+        });
+        assertNull(images.get(2)); // "0010", like a classic card image
+        BufferedImage image = (BufferedImage) loaded.poll(10, TimeUnit.SECONDS);
+        images.shutdown();
+
+        BufferedImage drawn = new BufferedImage(config.cellWidth, config.cellHeight, image.getType());
+        Graphics2D g = drawn.createGraphics();
+        new CardRenderer(config).draw(g, util.cardToFeatures(2), config.cellWidth, config.cellHeight);
+        g.dispose();
+        for (int y = 0; y < config.cellHeight; y++)
+            for (int x = 0; x < config.cellWidth; x++)
+                assertEquals(drawn.getRGB(x, y), image.getRGB(x, y));
+    }
+}
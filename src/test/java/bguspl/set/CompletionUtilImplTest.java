@@ -0,0 +1,111 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionUtilImplTest {
+
+    private Config config;
+    private Util expected;
+    private Util actual;
+
+    private void setUp(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        config = new Config(new MockLogger(), properties);
+        expected = new UtilImpl(config);
+        actual = new CompletionUtilImpl(config);
+    }
+
+    private static Set<String> asStrings(List<int[]> sets) {
+        return sets.stream().map(Arrays::toString).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private void assertSameSets(List<Integer> deck) {
+        assertEquals(asStrings(expected.findSets(deck, Integer.MAX_VALUE)), asStrings(actual.findSets(deck, Integer.MAX_VALUE)));
+    }
+
+    private List<Integer> randomDeck(Random random, int size) {
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        Collections.shuffle(deck, random);
+        return new ArrayList<>(deck.subList(0, size));
+    }
+
+    @Test
+    void findSets_FullDeck() {
+        setUp(3, 4);
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        List<int[]> sets = actual.findSets(deck, Integer.MAX_VALUE);
+        assertEquals(config.deckSize * (config.deckSize - 1) / 6, sets.size());
+        assertSameSets(deck);
+    }
+
+    @Test
+    void findSets_RandomTables() {
+        setUp(3, 4);
+        Random random = new Random(0);
+        for (int i = 0; i < 200; ++i)
+            assertSameSets(randomDeck(random, 1 + random.nextInt(20)));
+    }
+
+    @Test
+    void findSets_StopsAtCount() {
+        setUp(3, 4);
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        List<int[]> sets = actual.findSets(deck, 5);
+        assertEquals(5, sets.size());
+        sets.forEach(set -> assertTrue(expected.testSet(set)));
+    }
+
+    @Test
+    void findSets_FeatureSizeFour() {
+        setUp(4, 3);
+        Random random = new Random(0);
+        for (int i = 0; i < 50; ++i)
+            assertSameSets(randomDeck(random, 4 + random.nextInt(20)));
+    }
+
+    @Test
+    void findSets_FeatureSizeFive() {
+        setUp(5, 2);
+        Random random = new Random(0);
+        for (int i = 0; i < 50; ++i)
+            assertSameSets(randomDeck(random, 5 + random.nextInt(16)));
+    }
+
+    @Test
+    void findSets_FullDeckFeatureSizeFour() {
+        setUp(4, 2);
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        assertSameSets(deck);
+    }
+
+    @Test
+    void findSetsContaining_MatchesUtilImpl() {
+        for (int featureSize = 3; featureSize <= 4; ++featureSize) {
+            setUp(featureSize, 3);
+            Random random = new Random(0);
+            for (int i = 0; i < 50; ++i) {
+                List<Integer> deck = randomDeck(random, 2 + random.nextInt(20));
+                int card = deck.remove(0);
+                int[] cards = deck.stream().mapToInt(Integer::intValue).toArray();
+                assertEquals(asStrings(expected.findSetsContaining(card, cards, Integer.MAX_VALUE)),
+                        asStrings(actual.findSetsContaining(card, cards, Integer.MAX_VALUE)));
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardTest {
+
+    @Test
+    void setScore_MovesThePlayerUp() {
+        Leaderboard leaderboard = new Leaderboard(5, 3);
+        assertEquals(3, leaderboard.size());
+        assertEquals(0, leaderboard.player(0));
+
+        assertEquals(0, leaderboard.setScore(2, 1));
+        assertEquals(2, leaderboard.player(0));
+        assertEquals(0, leaderboard.player(1));
+        assertEquals(1, leaderboard.player(2));
+        assertEquals(1, leaderboard.setScore(1, 1)); // a tie does not pass the player ahead
+        assertEquals(0, leaderboard.rank(2));
+        assertEquals(2, leaderboard.rank(0));
+    }
+
+    @Test
+    void setScore_ReplacesTheLastPlayer() {
+        Leaderboard leaderboard = new Leaderboard(5, 3);
+        assertEquals(0, leaderboard.setScore(4, 1));
+        assertEquals(4, leaderboard.player(0));
+        assertEquals(0, leaderboard.player(1));
+        assertEquals(1, leaderboard.player(2));
+        assertEquals(-1, leaderboard.rank(2));
+        assertEquals(-1, leaderboard.setScore(3, 0));
+        assertEquals(1, leaderboard.score(4));
+    }
+
+    @Test
+    void setScore_KeepsTheTopPlayers() {
+        int players = 300;
+        Leaderboard leaderboard = new Leaderboard(players, 8);
+        int[] scores = new int[players];
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            int player = random.nextInt(players);
+            leaderboard.setScore(player, ++scores[player]);
+            for (int rank = 0; rank < leaderboard.size(); rank++) {
+                int shown = leaderboard.player(rank);
+                assertEquals(rank, leaderboard.rank(shown));
+                assertEquals(scores[shown], leaderboard.score(shown));
+                if (rank > 0) assertTrue(leaderboard.score(leaderboard.player(rank - 1)) >= scores[shown]);
+            }
+            // no player off the board has a higher score than the last player on it
+            int last = leaderboard.score(leaderboard.player(leaderboard.size() - 1));
+            for (int other = 0; other < players; other++)
+                if (leaderboard.rank(other) == -1) assertTrue(scores[other] <= last);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package bguspl.set;
+
+import java.util.logging.Logger;
+
+/**
+ * A logger without handlers, for the tests of this package.
+ */
+class MockLogger extends Logger {
+    MockLogger() {
+        super("", null);
+    }
+}
@@ -0,0 +1,55 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PackedUtilImplTest {
+
+    private static Config config(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        return new Config(new MockLogger(), properties);
+    }
+
+    @Test
+    void cardToFeatures_MatchesUtilImpl() {
+        Config config = config(3, 4);
+        Util expected = new UtilImpl(config);
+        Util actual = new PackedUtilImpl(config);
+        for (int card = 0; card < config.deckSize; ++card)
+            assertArrayEquals(expected.cardToFeatures(card), actual.cardToFeatures(card));
+    }
+
+    @Test
+    void testSet_AllTriplesMatchUtilImpl() {
+        Config config = config(3, 4);
+        Util expected = new UtilImpl(config);
+        Util actual = new PackedUtilImpl(config);
+        for (int a = 0; a < config.deckSize; ++a)
+            for (int b = a + 1; b < config.deckSize; ++b)
+                for (int c = b + 1; c < config.deckSize; ++c) {
+                    int[] cards = {a, b, c};
+                    assertEquals(expected.testSet(cards), actual.testSet(cards));
+                }
+    }
+
+    @Test
+    void testSet_LargerFeatureSizeMatchesUtilImpl() {
+        Random random = new Random(0);
+        for (int featureSize = 2; featureSize <= 5; ++featureSize) {
+            Config config = config(featureSize, 4);
+            Util expected = new UtilImpl(config);
+            Util actual = new PackedUtilImpl(config);
+            for (int i = 0; i < 10000; ++i) {
+                int[] cards = random.ints(featureSize, 0, config.deckSize).toArray();
+                assertEquals(expected.testSet(cards), actual.testSet(cards));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package bguspl.set;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Compares the painting work of one table change when the game panel redraws the whole grid of cards (as it did)
+ * with redrawing only the cell of the changed slot (as it does now), on an off-screen image with the real card images.
+ * Not a unit test, run it manually (after mvn test-compile):
+ * java -Djava.awt.headless=true -cp target/classes:target/test-classes bguspl.set.PaintBenchmark
+ */
+public class PaintBenchmark {
+
+    private static final long MEASURE_MILLIS = 1000;
+
+    private interface Scenario {
+        void paint(Graphics2D g, int change);
+    }
+
+    /**
+     * Paints changes repeatedly for about MEASURE_MILLIS and returns the average time of a change in microseconds.
+     */
+    private static double measure(BufferedImage screen, Scenario scenario) {
+        Graphics2D g = screen.createGraphics();
+        for (int change = 0; change < 100; change++) scenario.paint(g, change); // warm up
+        long start = System.nanoTime(), deadline = start + MEASURE_MILLIS * 1_000_000L;
+        int changes = 0;
+        long now;
+        do {
+            scenario.paint(g, changes++);
+        } while ((now = System.nanoTime()) < deadline);
+        g.dispose();
+        return (now - start) / 1000.0 / changes;
+    }
+
+    public static void main(String[] args) {
+        Properties properties = new Properties();
+        properties.put("LogLevel", "OFF");
+        Config config = new Config(Logger.getAnonymousLogger(), properties);
+        int width = config.cellWidth, height = config.cellHeight;
+        Image[] cards = new Image[config.tableSize];
+        for (int slot = 0; slot < cards.length; slot++)
+            cards[slot] = CardImages.loadImageResource("cards/"
+                    + UserInterfaceSwing.intInBaseToPaddedString(slot * 5, config.featureCount, config.featureSize) + ".png");
+        BufferedImage screen = new BufferedImage(config.columns * width, config.rows * height, BufferedImage.TYPE_INT_RGB);
+
+        double full = measure(screen, (g, change) -> {
+            for (int slot = 0; slot < cards.length; slot++)
+                g.drawImage(cards[slot], (slot % config.columns) * width, (slot / config.columns) * height, null);
+        });
+        double cell = measure(screen, (g, change) -> {
+            int slot = change % cards.length;
+            Graphics clipped = g.create((slot % config.columns) * width, (slot / config.columns) * height, width, height);
+            clipped.drawImage(cards[slot], 0, 0, null);
+            clipped.setColor(Color.BLACK);
+            clipped.drawRect(0, 0, width - 1, height - 1);
+            clipped.drawString("Player 1, Player 2", 10, 12);
+            clipped.dispose();
+        });
+        System.out.printf("%dx%d table, per change: whole grid %.1f us, changed cell %.1f us (%.1fx)%n",
+                config.rows, config.columns, full, cell, full / cell);
+    }
+}
@@ -0,0 +1,81 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelUtilImplTest {
+
+    private Config config;
+    private Util expected;
+    private ParallelUtilImpl actual;
+
+    private void setUp(int featureSize, int featureCount, boolean ordered) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        properties.put("UtilParallelism", "4");
+        properties.put("UtilOrderedSets", Boolean.toString(ordered));
+        config = new Config(new MockLogger(), properties);
+        expected = new CompletionUtilImpl(config);
+        actual = new ParallelUtilImpl(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (actual != null) actual.shutdown();
+    }
+
+    private static List<String> asStrings(List<int[]> sets) {
+        return sets.stream().map(Arrays::toString).collect(Collectors.toList());
+    }
+
+    private List<Integer> randomDeck(Random random, int size) {
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        Collections.shuffle(deck, random);
+        return new ArrayList<>(deck.subList(0, size));
+    }
+
+    @Test
+    void findSets_OrderedMatchesSequential() {
+        setUp(3, 5, true);
+        Random random = new Random(0);
+        for (int i = 0; i < 20; ++i) {
+            List<Integer> deck = randomDeck(random, 64 + random.nextInt(config.deckSize - 64));
+            for (int count : new int[]{1, 7, 100, Integer.MAX_VALUE})
+                assertEquals(asStrings(expected.findSets(deck, count)), asStrings(actual.findSets(deck, count)));
+        }
+    }
+
+    @Test
+    void findSets_UnorderedFindsAllSets() {
+        setUp(4, 3, false);
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        Set<String> all = new TreeSet<>(asStrings(expected.findSets(deck, Integer.MAX_VALUE)));
+        assertEquals(all, new TreeSet<>(asStrings(actual.findSets(deck, Integer.MAX_VALUE))));
+    }
+
+    @Test
+    void findSets_UnorderedStopsAtCount() {
+        setUp(3, 5, false);
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        for (int count : new int[]{1, 10, 1000}) {
+            List<int[]> sets = actual.findSets(deck, count);
+            assertEquals(count, sets.size());
+            sets.forEach(set -> assertTrue(expected.testSet(set)));
+        }
+    }
+}
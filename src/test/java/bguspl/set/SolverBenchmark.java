@@ -0,0 +1,78 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the brute force UtilImpl::findSets with the completion solvers of CompletionUtilImpl and ParallelUtilImpl.
+ * Not a unit test, run it manually (after mvn test-compile):
+ * java -cp target/classes:target/test-classes bguspl.set.SolverBenchmark
+ */
+public class SolverBenchmark {
+
+    private static final long MEASURE_MILLIS = 1000;
+
+    /**
+     * The deck shapes to benchmark (featureSize, featureCount).
+     */
+    private static final int[][] SHAPES = {{3, 4}, {3, 5}, {4, 3}, {4, 4}, {5, 3}};
+
+    private interface Scenario {
+        List<int[]> run(Util util);
+    }
+
+    /**
+     * Runs the scenario repeatedly for about MEASURE_MILLIS and returns the average time of a run in microseconds.
+     */
+    private static double measure(Util util, Scenario scenario) {
+        scenario.run(util); // warm up
+        long start = System.nanoTime(), deadline = start + MEASURE_MILLIS * 1_000_000L;
+        int runs = 0;
+        long now;
+        do {
+            scenario.run(util);
+            ++runs;
+        } while ((now = System.nanoTime()) < deadline);
+        return (now - start) / 1000.0 / runs;
+    }
+
+    private static void compare(String name, Util bruteForce, Util completion, Util parallel, Scenario scenario) {
+        double brute = measure(bruteForce, scenario);
+        double fast = measure(completion, scenario);
+        double forkJoin = measure(parallel, scenario);
+        System.out.printf("  %-28s brute force: %12.1f us  completion: %10.1f us  parallel: %10.1f us  speedup: %8.1fx%n",
+                name, brute, fast, forkJoin, brute / Math.min(fast, forkJoin));
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(0);
+        for (int[] shape : SHAPES) {
+            Properties properties = new Properties();
+            properties.put("FeatureSize", Integer.toString(shape[0]));
+            properties.put("FeatureCount", Integer.toString(shape[1]));
+            properties.put("LogLevel", "OFF");
+            Config config = new Config(Logger.getAnonymousLogger(), properties);
+            Util bruteForce = new UtilImpl(config);
+            Util completion = new CompletionUtilImpl(config);
+            Util parallel = new ParallelUtilImpl(config);
+
+            List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+            Collections.shuffle(deck, random);
+            List<Integer> table = new ArrayList<>(deck.subList(0, 12));
+            List<Integer> remainder = new ArrayList<>(deck.subList(0, Math.min(deck.size(), 8 * config.featureSize)));
+            List<Integer> half = new ArrayList<>(deck.subList(0, deck.size() / 2));
+
+            System.out.printf("FeatureSize=%d FeatureCount=%d (deck of %d cards)%n", config.featureSize, config.featureCount, config.deckSize);
+            compare("shuffled deck, first set", bruteForce, completion, parallel, util -> util.findSets(deck, 1));
+            compare("12 cards table, all sets", bruteForce, completion, parallel, util -> util.findSets(table, Integer.MAX_VALUE));
+            compare(half.size() + " cards left, all sets", bruteForce, completion, parallel, util -> util.findSets(half, Integer.MAX_VALUE));
+            compare(remainder.size() + " cards left, all sets", bruteForce, completion, parallel, util -> util.findSets(remainder, Integer.MAX_VALUE));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The virtual thread tests run on Java 21 or later only (e.g. mvn -Pjdk21 test), and are skipped on older JVMs.
+ */
+class ThreadsTest {
+
+    private static Config config(boolean virtualThreads) {
+        Properties properties = new Properties();
+        properties.put("VirtualThreads", Boolean.toString(virtualThreads));
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "4");
+        for (String delay : new String[]{"PointFreezeSeconds", "PenaltyFreezeSeconds", "TableDelaySeconds", "ComputerPlayerDelaySeconds", "EndGamePauseSeconds"})
+            properties.put(delay, "0");
+        properties.put("Hints", "False");
+        return new Config(new MockLogger(), properties);
+    }
+
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    @Test
+    void factory_PlatformThreadsWithoutVirtualThreads() throws InterruptedException {
+        assumeFalse(Threads.virtualThreadsSupported());
+        boolean[] ran = new boolean[1];
+        Thread thread = Threads.factory(config(true), new MockLogger()).newThread(() -> ran[0] = true);
+        thread.start();
+        thread.join();
+        assertTrue(ran[0]);
+    }
+
+    @Test
+    void factory_VirtualThreadsWhenConfigured() throws ReflectiveOperationException {
+        assumeTrue(Threads.virtualThreadsSupported(), "needs Java 21 or later");
+        assertTrue(isVirtual(Threads.factory(config(true), new MockLogger()).newThread(() -> {})));
+        assertFalse(isVirtual(Threads.factory(config(false), new MockLogger()).newThread(() -> {})));
+    }
+
+    @Test
+    void play_OnVirtualThreads() throws ReflectiveOperationException {
+        assumeTrue(Threads.virtualThreadsSupported(), "needs Java 21 or later");
+        Config config = config(true);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        ThreadFactory virtual = Threads.factory(config, new MockLogger());
+        ThreadFactory recording = runnable -> {
+            Thread thread = virtual.newThread(runnable);
+            threads.add(thread);
+            return thread;
+        };
+        UserInterface ui = mock(UserInterface.class);
+        Env env = new Env(new MockLogger(), config, ui, new UtilImpl(config), new RandomSource(1, config.players),
+                new SimulatedClock(), recording);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> Simulation.play(env));
+        verify(ui).announceWinner(any());
+        assertTrue(threads.size() >= config.players); // the players and the computer players
+        for (Thread thread : threads) {
+            assertTrue(isVirtual(thread));
+            assertFalse(thread.isAlive());
+        }
+    }
+}
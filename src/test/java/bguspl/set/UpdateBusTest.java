@@ -0,0 +1,46 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.EventQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpdateBusTest {
+
+    @Test
+    void markDirty_CoalescesMarksUntilTheFlush() throws Exception {
+        UpdateBus bus = new UpdateBus(0);
+        AtomicInteger flushes = new AtomicInteger();
+        Runnable flusher = flushes::incrementAndGet;
+        EventQueue.invokeAndWait(() -> { // the EDT cannot flush before all the marks
+            for (int i = 0; i < 1000; i++)
+                bus.markDirty(flusher);
+        });
+        EventQueue.invokeAndWait(() -> {});
+        assertEquals(1, flushes.get());
+        bus.shutdown();
+    }
+
+    @Test
+    void markDirty_FlushesOncePerFrame() throws Exception {
+        UpdateBus bus = new UpdateBus(10);
+        AtomicInteger offEdt = new AtomicInteger();
+        CountDownLatch flushed = new CountDownLatch(3);
+        Runnable flusher = () -> {
+            if (!EventQueue.isDispatchThread()) offEdt.incrementAndGet();
+            flushed.countDown();
+        };
+        long start = System.nanoTime();
+        while (!flushed.await(1, TimeUnit.MILLISECONDS))
+            bus.markDirty(flusher);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(millis >= 200, "3 flushes at 10 frames per second took only " + millis + "ms");
+        assertEquals(0, offEdt.get());
+        bus.shutdown();
+    }
+}
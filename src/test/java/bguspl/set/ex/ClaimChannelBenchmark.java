@@ -0,0 +1,155 @@
+package bguspl.set.ex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Measures set claim throughput and claim-to-verdict latency with 2 to 64 players submitting claims as fast as
+ * they can, comparing the previous tryLock spin + wait/notify hand-off with the EventChannel + Claim hand-off.
+ * Not a unit test, run it manually (after mvn test-compile):
+ * java -cp target/classes:target/test-classes bguspl.set.ex.ClaimChannelBenchmark
+ */
+public class ClaimChannelBenchmark {
+
+    private static final long MEASURE_MILLIS = 1000;
+    private static final int[] PLAYERS = {2, 4, 8, 16, 32, 64};
+    private static final int[] SLOTS = {0, 1, 2};
+
+    private static volatile boolean running;
+
+    /**
+     * The result of a single run: claims examined and their total claim-to-verdict latency.
+     */
+    private static class Result {
+        final AtomicLong claims = new AtomicLong();
+        final AtomicLong latencyNanos = new AtomicLong();
+
+        void record(long submitted) {
+            claims.incrementAndGet();
+            latencyNanos.addAndGet(System.nanoTime() - submitted);
+        }
+    }
+
+    /**
+     * The previous hand-off: players spin on tryLock, enqueue themselves, notify the dealer and wait on their own
+     * monitor; the dealer wakes up (or times out after 10ms) and examines a single claim per wake-up.
+     */
+    private static class LegacyDealer {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<LegacyPlayer> claims = new ConcurrentLinkedQueue<>();
+
+        synchronized void handleTest(LegacyPlayer player) {
+            claims.add(player);
+            notifyAll();
+        }
+
+        void run() {
+            while (running) {
+                try {
+                    synchronized (this) { wait(10); }
+                } catch (InterruptedException ignored) {}
+                LegacyPlayer player = claims.poll();
+                if (player != null) synchronized (player) {
+                    player.examined = true;
+                    player.notifyAll();
+                }
+            }
+            for (LegacyPlayer player : claims) synchronized (player) { player.examined = true; player.notifyAll(); }
+        }
+    }
+
+    private static class LegacyPlayer {
+        boolean examined;
+
+        void run(LegacyDealer dealer, Result result) {
+            while (running) {
+                long submitted = System.nanoTime();
+                while (!dealer.lock.tryLock()) ; // spin until the lock is acquired
+                synchronized (this) {
+                    examined = false;
+                    try {
+                        dealer.handleTest(this);
+                    } finally {
+                        dealer.lock.unlock();
+                    }
+                    while (!examined && running) {
+                        try {
+                            wait(100);
+                        } catch (InterruptedException ignored) {}
+                    }
+                }
+                result.record(submitted);
+            }
+        }
+    }
+
+    private static Result runLegacy(int players) throws InterruptedException {
+        Result result = new Result();
+        LegacyDealer dealer = new LegacyDealer();
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(dealer::run));
+        for (int i = 0; i < players; i++)
+            threads.add(new Thread(() -> new LegacyPlayer().run(dealer, result)));
+        return measure(threads, result);
+    }
+
+    private static Result runChannel(int players) throws InterruptedException {
+        Result result = new Result();
+        EventChannel<Claim> channel = new EventChannel<>();
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            List<Claim> batch = new ArrayList<>();
+            while (running) {
+                Claim claim = channel.poll(10, TimeUnit.MILLISECONDS);
+                if (claim == null) continue;
+                batch.add(claim);
+                channel.drainTo(batch);
+                batch.forEach(c -> c.complete(Claim.Verdict.PENALTY));
+                batch.clear();
+            }
+            for (Claim claim : channel) claim.complete(Claim.Verdict.DISCARDED);
+        }));
+        for (int i = 0; i < players; i++) {
+            int id = i;
+            threads.add(new Thread(() -> {
+                while (running) {
+                    long submitted = System.nanoTime();
+                    Claim claim = new Claim(id, SLOTS, SLOTS, 0, submitted);
+                    channel.offer(claim);
+                    claim.await();
+                    result.record(submitted);
+                }
+            }));
+        }
+        return measure(threads, result);
+    }
+
+    private static Result measure(List<Thread> threads, Result result) throws InterruptedException {
+        running = true;
+        threads.forEach(Thread::start);
+        Thread.sleep(MEASURE_MILLIS);
+        running = false;
+        for (Thread thread : threads)
+            thread.join(1000);
+        return result;
+    }
+
+    private static String format(Result result) {
+        long claims = Math.max(1, result.claims.get());
+        return String.format("%10d claims/s  %9.1f us/claim", result.claims.get() * 1000 / MEASURE_MILLIS, result.latencyNanos.get() / 1000.0 / claims);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        runChannel(4); // warm up
+        runLegacy(4);
+        for (int players : PLAYERS) {
+            System.out.printf("%2d players  tryLock + wait/notify: %s   channel + claim future: %s%n",
+                    players, format(runLegacy(players)), format(runChannel(players)));
+        }
+    }
+}
@@ -1,10 +1,24 @@
 package bguspl.set.ex;
 
+import bguspl.set.CompletionUtilImpl;
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.RandomSource;
+import bguspl.set.SimulatedClock;
+import bguspl.set.UserInterface;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Properties;
+import java.util.logging.Logger;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 class DealerTest {
 
@@ -21,6 +35,38 @@ class DealerTest {
     void run() {
     }
 
+    @Test
+    void run_ReshufflesOnTurnTimeout() throws InterruptedException {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "0");
+        properties.put("TurnTimeoutSeconds", "60");
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "1"); // the three cards of the deck are a set, however they are dealt
+        properties.put("Rows", "1");
+        properties.put("Columns", "3");
+        Logger logger = new TableTest.MockLogger();
+        Config config = new Config(logger, properties);
+        UserInterface ui = mock(UserInterface.class);
+        SimulatedClock clock = new SimulatedClock();
+        Env env = new Env(logger, config, ui, new CompletionUtilImpl(config), new RandomSource(1, 0), clock);
+        Table table = new Table(env);
+        Dealer dealer = new Dealer(env, table, new Player[0]);
+        Thread thread = new Thread(dealer);
+        thread.start();
+
+        verify(ui, timeout(1000).times(config.tableSize)).placeCard(anyInt(), anyInt());
+        verify(ui, timeout(1000)).setCountdown(config.turnTimeoutMillis, false); // the countdown started at time 0
+        clock.advanceTo(config.turnTimeoutMillis - 1);
+        verify(ui, timeout(1000)).setCountdown(1, true); // the dealer saw the last millisecond of the turn...
+        verify(ui, never()).removeCard(anyInt()); // ...and kept the cards
+        clock.advance(1); // the turn timed out in simulated time: the dealer reshuffles at once
+        verify(ui, timeout(1000).times(config.tableSize)).removeCard(anyInt());
+
+        dealer.terminate();
+        thread.join(1000);
+        assertFalse(thread.isAlive());
+    }
+
     @Test
     void handleTest() {
 
@@ -2,20 +2,25 @@ package bguspl.set.ex;
 
 import bguspl.set.Config;
 import bguspl.set.Env;
+import bguspl.set.RandomSource;
+import bguspl.set.SimulatedClock;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,6 +38,7 @@ class PlayerTest {
     private Dealer dealer;
     @Mock
     private Logger logger;
+    private SimulatedClock clock;
 
     void assertInvariants() {
         assertTrue(player.id >= 0);
@@ -42,7 +48,9 @@ class PlayerTest {
     @BeforeEach
     void setUp() {
         // purposely do not find the configuration files (use defaults here).
-        Env env = new Env(logger, new Config(logger, (String) null), ui, util);
+        Config config = new Config(logger, (String) null);
+        clock = new SimulatedClock(0, true); // the freezes take no real time
+        Env env = new Env(logger, config, ui, util, new RandomSource(config.randomSeed, config.players), clock);
         player = new Player(env, dealer, table, 0, false);
         assertInvariants();
     }
@@ -70,4 +78,57 @@ class PlayerTest {
         // check that ui.setScore was called with the player's id and the correct score
         verify(ui).setScore(eq(player.id), eq(expectedScore));
     }
-}
\ No newline at end of file
+
+    @Test
+    void point_FreezesThePlayer() {
+
+        Config config = new Config(logger, (String) null);
+        player.point();
+
+        // the player was frozen for the whole point freeze, in simulated time
+        assertEquals(config.pointFreezeMillis, clock.millis());
+        verify(ui).setFreeze(eq(player.id), eq(config.pointFreezeMillis));
+        verify(ui).setFreeze(eq(player.id), eq(0L));
+    }
+
+    @Test
+    void penalty() {
+
+        Config config = new Config(logger, (String) null);
+        int expectedScore = player.getScore();
+        player.penalty();
+
+        assertEquals(config.penaltyFreezeMillis, clock.millis());
+        assertEquals(expectedScore, player.getScore());
+        verify(ui).setFreeze(eq(player.id), eq(0L));
+    }
+
+    @Test
+    void claimSet_TokenPlacedBeforeAnotherSetWasReplaced() throws InterruptedException {
+
+        Config config = new Config(logger, (String) null);
+        Env env = new Env(logger, config, ui, util, new RandomSource(config.randomSeed, config.players), clock);
+        Table table = new Table(env);
+        for (int slot = 0; slot < 6; slot++) table.placeCard(slot, slot);
+        Player player = new Player(env, dealer, table, 0, true);
+        Thread thread = new Thread(player);
+        thread.start();
+        while (player.getPlayerThread() == null) Thread.yield(); // the player takes key presses from now on
+
+        player.keyPressed(0);
+        verify(ui, timeout(1000)).placeToken(player.id, 0);
+        for (int slot = 3; slot < 6; slot++) { // another player's set is replaced
+            table.removeCard(slot);
+            table.placeCard(slot + 10, slot);
+        }
+        player.keyPressed(3);
+        player.keyPressed(4);
+
+        // the claim is on the cards on the table, so the dealer must not drop it as stale
+        ArgumentCaptor<Claim> claim = ArgumentCaptor.forClass(Claim.class);
+        verify(dealer, timeout(1000)).submit(claim.capture());
+        assertFalse(claim.getValue().isStale(table.board()));
+        player.terminate();
+        thread.join();
+    }
+}
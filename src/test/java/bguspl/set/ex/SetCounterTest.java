@@ -0,0 +1,95 @@
+package bguspl.set.ex;
+
+import bguspl.set.CompletionUtilImpl;
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.Util;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SetCounterTest {
+
+    private Config config;
+    private Util bruteForce;
+    private Env env;
+
+    private void setUp(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        Logger logger = new TableTest.MockLogger();
+        config = new Config(logger, properties);
+        bruteForce = new UtilImpl(config);
+        env = new Env(logger, config, new TableTest.MockUserInterface(), new CompletionUtilImpl(config));
+    }
+
+    private void assertMatchesBruteForce(SetCounter counter, List<Integer> inPlay, boolean countSets) {
+        if (!countSets) {
+            assertEquals(!bruteForce.findSets(inPlay, 1).isEmpty(), counter.hasSets());
+            return;
+        }
+        List<int[]> sets = bruteForce.findSets(inPlay, Integer.MAX_VALUE);
+        assertEquals(sets.size(), counter.count());
+        int[] setsPerCard = new int[config.deckSize];
+        sets.forEach(set -> IntStream.of(set).forEach(card -> ++setsPerCard[card]));
+        for (int card = 0; card < config.deckSize; ++card)
+            assertEquals(setsPerCard[card], counter.count(card));
+    }
+
+    /**
+     * Plays a random game: mostly removes random legal sets (like players collecting them), sometimes single cards.
+     */
+    private void playRandomGame(Random random, boolean countSets) {
+        SetCounter counter = new SetCounter(env);
+        List<Integer> inPlay = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        assertMatchesBruteForce(counter, inPlay, countSets);
+
+        while (counter.hasSets()) {
+            List<int[]> sets = env.util.findSets(inPlay, Integer.MAX_VALUE);
+            int[] removed = random.nextInt(10) == 0
+                    ? new int[]{inPlay.get(random.nextInt(inPlay.size()))}
+                    : sets.get(random.nextInt(sets.size()));
+            for (int card : removed) {
+                counter.remove(card);
+                inPlay.remove((Integer) card);
+                assertFalse(counter.inPlay(card));
+            }
+            assertMatchesBruteForce(counter, inPlay, countSets);
+        }
+    }
+
+    @Test
+    void randomGames_SmallDeck() {
+        setUp(3, 3);
+        Random random = new Random(0);
+        for (int game = 0; game < 2000; ++game)
+            playRandomGame(random, true);
+    }
+
+    @Test
+    void randomGames_FullDeck() {
+        setUp(3, 4);
+        Random random = new Random(1);
+        for (int game = 0; game < 1000; ++game)
+            playRandomGame(random, false);
+    }
+
+    @Test
+    void randomGames_FeatureSizeFour() {
+        setUp(4, 2);
+        Random random = new Random(2);
+        for (int game = 0; game < 1000; ++game)
+            playRandomGame(random, true);
+    }
+}
@@ -1,5 +1,6 @@
 package bguspl.set.ex;
 
+import bguspl.set.CompletionUtilImpl;
 import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
@@ -7,17 +8,20 @@ import bguspl.set.Util;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableTest {
 
     Table table;
-    private Integer[] slotToCard;
-    private Integer[] cardToSlot;
+    private Env env;
 
     @BeforeEach
     void setUp() {
@@ -32,34 +36,28 @@ class TableTest {
         properties.put("PlayerKeys2", "85,73,79,80");
         MockLogger logger = new MockLogger();
         Config config = new Config(logger, properties);
-        slotToCard = new Integer[config.tableSize];
-        cardToSlot = new Integer[config.deckSize];
-
-        Env env = new Env(logger, config, new MockUserInterface(), new MockUtil());
-        table = new Table(env, slotToCard, cardToSlot);
+        env = new Env(logger, config, new MockUserInterface(), new MockUtil());
+        table = new Table(env);
     }
 
     private int fillSomeSlots() {
-        slotToCard[1] = 3;
-        slotToCard[2] = 5;
-        cardToSlot[3] = 1;
-        cardToSlot[5] = 2;
+        table = new Table(env, new int[]{Table.NONE, 3, 5, Table.NONE});
 
         return 2;
     }
 
     private void fillAllSlots() {
-        for (int i = 0; i < slotToCard.length; ++i) {
-            slotToCard[i] = i;
-            cardToSlot[i] = i;
-        }
+        int[] cards = new int[env.config.tableSize];
+        for (int i = 0; i < cards.length; ++i)
+            cards[i] = i;
+        table = new Table(env, cards);
     }
 
     private void placeSomeCardsAndAssert() throws InterruptedException {
         table.placeCard(8, 2);
 
-        assertEquals(8, (int) slotToCard[2]);
-        assertEquals(2, (int) cardToSlot[8]);
+        assertEquals(8, table.cardAt(2));
+        assertEquals(2, table.slotOf(8));
     }
 
     @Test
@@ -79,7 +77,7 @@ class TableTest {
     void countCards_AllSlotsAreFilled() {
 
         fillAllSlots();
-        assertEquals(slotToCard.length, table.countCards());
+        assertEquals(table.slots(), table.countCards());
     }
 
     @Test
@@ -95,6 +93,184 @@ class TableTest {
         placeSomeCardsAndAssert();
     }
 
+    @Test
+    void placeCard_ReplacesCard() throws InterruptedException {
+
+        fillAllSlots();
+        placeSomeCardsAndAssert();
+        assertEquals(Table.NONE, table.slotOf(2));
+        assertEquals(table.slots(), table.countCards());
+    }
+
+    @Test
+    void removeCard_SomeSlotsAreFilled() {
+
+        fillSomeSlots();
+        table.removeCard(1);
+        assertEquals(1, table.countCards());
+        assertFalse(table.hasCard(1));
+        assertEquals(Table.NONE, table.cardAt(1));
+        assertEquals(Table.NONE, table.slotOf(3));
+        table.removeCard(1);
+        assertEquals(1, table.countCards());
+    }
+
+    @Test
+    void nextSlots_SomeSlotsAreFilled() {
+
+        fillSomeSlots();
+        assertEquals(1, table.nextCard(0));
+        assertEquals(2, table.nextCard(2));
+        assertEquals(Table.NONE, table.nextCard(3));
+        assertEquals(0, table.nextEmptySlot(0));
+        assertEquals(3, table.nextEmptySlot(1));
+        assertEquals(Table.NONE, table.nextEmptySlot(4));
+    }
+
+    @Test
+    void placeCard_DoesNotWaitForTableDelay() {
+
+        Properties properties = new Properties();
+        properties.put("TableDelaySeconds", "1");
+        MockLogger logger = new MockLogger();
+        Config config = new Config(logger, properties);
+        Table table = new Table(new Env(logger, config, new MockUserInterface(), new MockUtil()));
+        long start = System.currentTimeMillis();
+        table.placeCard(0, 0);
+        table.removeCard(0);
+        assertTrue(System.currentTimeMillis() - start < config.tableDelayMillis);
+    }
+
+    @Test
+    void placeToken_SomeSlotsAreFilled() {
+
+        fillSomeSlots();
+        table.placeToken(0, 1);
+        table.placeToken(1, 1);
+        table.placeToken(1, 1);
+        assertTrue(table.hasToken(0, 1));
+        assertTrue(table.hasToken(1, 1));
+        assertFalse(table.hasToken(0, 2));
+        assertEquals(0b11, table.tokens(1)[0]);
+        assertFalse(table.hasTokens(2));
+    }
+
+    @Test
+    void removeToken_SomeSlotsAreFilled() {
+
+        fillSomeSlots();
+        table.placeToken(1, 2);
+        assertTrue(table.removeToken(1, 2));
+        assertFalse(table.removeToken(1, 2));
+        assertFalse(table.hasTokens(2));
+    }
+
+    @Test
+    void removeCard_ClearsTokens() {
+
+        fillSomeSlots();
+        table.placeToken(0, 1);
+        table.placeToken(1, 2);
+        table.removeCard(1);
+        assertFalse(table.hasTokens(1));
+        assertTrue(table.hasToken(1, 2));
+    }
+
+    @Test
+    void placeToken_ManyPlayers() {
+
+        Properties properties = new Properties();
+        properties.put("ComputerPlayers", "100");
+        properties.put("TableDelaySeconds", "0");
+        MockLogger logger = new MockLogger();
+        Config config = new Config(logger, properties);
+        Table table = new Table(new Env(logger, config, new MockUserInterface(), new MockUtil()));
+        table.placeToken(99, 0);
+        table.placeToken(3, 0);
+        assertTrue(table.hasToken(99, 0));
+        assertFalse(table.hasToken(35, 0));
+        assertEquals(1L << 3, table.tokens(0)[0]);
+        assertEquals(1L << 35, table.tokens(0)[1]);
+        assertTrue(table.removeToken(99, 0));
+        assertTrue(table.hasTokens(0));
+    }
+
+    private Env envWithUtil() {
+        Properties properties = new Properties();
+        properties.put("TableDelaySeconds", "0");
+        MockLogger logger = new MockLogger();
+        Config config = new Config(logger, properties);
+        return new Env(logger, config, new MockUserInterface(), new CompletionUtilImpl(config));
+    }
+
+    private Table tableWithUtil() {
+        return new Table(envWithUtil());
+    }
+
+    @Test
+    void constructor_IndexesEachSetOnce() {
+        Env env = envWithUtil();
+        int[] cards = new int[env.config.tableSize];
+        Arrays.fill(cards, Table.NONE);
+        int[] placed = {0, 1, 2, 3, 6}; // 0000, 0001, 0002 and 0000, 0010, 0020
+        System.arraycopy(placed, 0, cards, 0, placed.length);
+        assertEquals(2, new Table(env, cards).countSets());
+    }
+
+    @Test
+    void placeCard_IndexesSets() {
+        Table table = tableWithUtil();
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        assertFalse(table.hasSets());
+        table.placeCard(2, 2); // 0000, 0001, 0002
+        assertTrue(table.hasSets());
+        table.placeCard(3, 3);
+        table.placeCard(6, 4); // 0000, 0010, 0020
+        assertEquals(2, table.countSets());
+    }
+
+    @Test
+    void removeCard_UnindexesSets() {
+        Table table = tableWithUtil();
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(2, 2);
+        table.placeCard(3, 3);
+        table.placeCard(6, 4);
+        table.removeCard(0);
+        assertFalse(table.hasSets());
+        table.placeCard(0, 0);
+        assertEquals(2, table.countSets());
+    }
+
+    @Test
+    void removeCard_ChangesOnlyThatSlot() {
+        table.placeCard(3, 1);
+        table.placeCard(5, 2);
+        Board before = table.board();
+        table.removeCard(1);
+        Board after = table.board();
+        assertTrue(before.version < after.version);
+        assertFalse(after.unchangedSince(1, before.version));
+        assertTrue(after.unchangedSince(2, before.version));
+        assertEquals(3, before.card(1)); // the old board does not change
+        assertFalse(after.hasCard(1));
+        assertEquals(1, after.countCards());
+    }
+
+    @Test
+    void staleClaim_IsDetected() {
+        table.placeCard(3, 1);
+        table.placeCard(5, 2);
+        Claim claim = new Claim(0, new int[]{1, 2}, new int[]{3, 5}, table.board().version, 0);
+        assertFalse(claim.isStale(table.board()));
+        table.placeCard(20, 3);
+        assertFalse(claim.isStale(table.board()));
+        table.removeCard(2);
+        assertTrue(claim.isStale(table.board()));
+    }
+
     static class MockUserInterface implements UserInterface {
         @Override
         public void dispose() {}
@@ -143,6 +319,16 @@ class TableTest {
             return null;
         }
 
+        @Override
+        public List<int[]> findSets(int[] cards, int count) {
+            return null;
+        }
+
+        @Override
+        public List<int[]> findSetsContaining(int card, int[] cards, int count) {
+            return Collections.emptyList();
+        }
+
         @Override
         public void spin() {}
     }